@@ -0,0 +1,52 @@
+// k6 run -e BASE_URL=http://localhost:8080 -e VUS=1000 loadtest/vote-load.js
+// Each virtual user posts votes with fresh, valid CPFs to one shared session for DURATION.
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const VUS = parseInt(__ENV.VUS || '1000');
+const DURATION = __ENV.DURATION || '2m';
+
+export const options = {
+    scenarios: {
+        votes: {
+            executor: 'constant-vus',
+            vus: VUS,
+            duration: DURATION,
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+export function setup() {
+    const res = http.post(`${BASE_URL}/api/session`,
+        JSON.stringify({ description: `load ${VUS} vus`, votingTimeMinutes: 60 }),
+        { headers: { 'Content-Type': 'application/json' } });
+    check(res, { 'session created': r => r.status === 201 });
+    return { sessionId: res.json('sessionId') };
+}
+
+function checkDigit(digits) {
+    let sum = 0;
+    for (let i = 0; i < digits.length; i++) {
+        sum += digits[i] * (digits.length + 1 - i);
+    }
+    const d = 11 - (sum % 11);
+    return d >= 10 ? 0 : d;
+}
+
+// Base digits are derived from the VU and iteration so CPFs never repeat within a run.
+function cpfFor(vu, iteration) {
+    const base = String((vu * 1_000_000 + iteration) % 1_000_000_000).padStart(9, '0');
+    const digits = base.split('').map(Number);
+    digits.push(checkDigit(digits));
+    digits.push(checkDigit(digits));
+    return digits.join('');
+}
+
+export default function (data) {
+    const res = http.post(`${BASE_URL}/api/votes`,
+        JSON.stringify({ sessionId: data.sessionId, cpf: cpfFor(__VU, __ITER), vote: __ITER % 2 ? 'NO' : 'YES' }),
+        { headers: { 'Content-Type': 'application/json' } });
+    check(res, { 'vote accepted': r => r.status === 202 || r.status === 404 });
+}
@@ -0,0 +1,43 @@
+package com.test.voting.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.test.voting.config.VoteDedupProperties;
+import com.test.voting.model.enums.VoteAdmission;
+import com.test.voting.repository.VoteExistenceCoalescer;
+import com.test.voting.repository.VoteExistenceCoalescer.VoteKey;
+import org.springframework.stereotype.Component;
+
+@Component
+public class DegradedVoteAdmission {
+
+    private final VoteExistenceCoalescer voteExistenceCoalescer;
+    private final Cache<VoteKey, Boolean> admitted;
+
+    public DegradedVoteAdmission(VoteExistenceCoalescer voteExistenceCoalescer, VoteDedupProperties dedupProperties) {
+        this.voteExistenceCoalescer = voteExistenceCoalescer;
+        this.admitted = Caffeine.newBuilder()
+                .maximumSize(dedupProperties.admittedMaxSize())
+                .expireAfterWrite(dedupProperties.admittedTtl())
+                .build();
+    }
+
+    public VoteAdmission admit(Long sessionId, long cpf) {
+        VoteKey key = new VoteKey(sessionId, cpf);
+        if (admitted.asMap().putIfAbsent(key, Boolean.TRUE) != null) {
+            return VoteAdmission.ALREADY_VOTED;
+        }
+        try {
+            return voteExistenceCoalescer.exists(sessionId, cpf)
+                    ? VoteAdmission.ALREADY_VOTED
+                    : VoteAdmission.ADMITTED;
+        } catch (RuntimeException e) {
+            admitted.invalidate(key);
+            throw e;
+        }
+    }
+
+    public void release(Long sessionId, long cpf) {
+        admitted.invalidate(new VoteKey(sessionId, cpf));
+    }
+}
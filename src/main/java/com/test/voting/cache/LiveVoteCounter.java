@@ -0,0 +1,140 @@
+package com.test.voting.cache;
+
+import com.test.voting.dto.ResultResponse;
+import com.test.voting.model.enums.VoteType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LiveVoteCounter {
+
+    private static final String FIELD_YES = "yes";
+    private static final String FIELD_NO = "no";
+    private static final Duration LIVE_TTL = Duration.ofDays(1);
+    private static final Duration CLOSED_TTL = Duration.ofMinutes(10);
+    private static final long IDLE_EVICTION_MILLIS = Duration.ofMinutes(10).toMillis();
+
+    private final StringRedisTemplate redis;
+
+    private final Map<Long, Counters> counters = new ConcurrentHashMap<>();
+    // Evicted by the last flush and drained once more by the next; only touched by the flushing thread.
+    private List<Delta> evicted = new ArrayList<>();
+
+    public static String key(Long sessionId) {
+        return "live:{" + sessionId + "}";
+    }
+
+    public void increment(Long sessionId, VoteType vote) {
+        countersFor(sessionId).add(vote, 1);
+    }
+
+    public void decrement(Long sessionId, VoteType vote) {
+        countersFor(sessionId).add(vote, -1);
+    }
+
+    Counters countersFor(Long sessionId) {
+        return counters.computeIfAbsent(sessionId, id -> new Counters());
+    }
+
+    public ResultResponse.VoteCount read(Long sessionId) {
+        List<Object> values = redis.opsForHash().multiGet(key(sessionId), List.of(FIELD_YES, FIELD_NO));
+        long yes = parse(values.get(0));
+        long no = parse(values.get(1));
+        return new ResultResponse.VoteCount(yes, no, yes + no);
+    }
+
+    public void retire(List<Long> sessionIds) {
+        if (sessionIds.isEmpty()) return;
+        try {
+            redis.executePipelined((RedisCallback<Object>) connection -> {
+                for (Long sessionId : sessionIds) {
+                    connection.keyCommands().expire(key(sessionId).getBytes(StandardCharsets.UTF_8), CLOSED_TTL.toSeconds());
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.error("Failed to shorten live counter TTL for {} closed sessions: {}", sessionIds.size(), e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.votes.live.flush-interval-ms:500}")
+    public void flush() {
+        flush(System.currentTimeMillis());
+    }
+
+    void flush(long now) {
+        List<Delta> deltas = new ArrayList<>();
+
+        for (Delta retired : evicted) {
+            long yes = retired.session().yes.sumThenReset();
+            long no = retired.session().no.sumThenReset();
+            if (yes != 0 || no != 0) {
+                deltas.add(new Delta(retired.sessionId(), retired.session(), yes, no));
+            }
+        }
+        evicted = new ArrayList<>();
+
+        counters.forEach((sessionId, session) -> {
+            long yes = session.yes.sumThenReset();
+            long no = session.no.sumThenReset();
+            if (yes != 0 || no != 0) {
+                session.lastActive = now;
+                deltas.add(new Delta(sessionId, session, yes, no));
+            } else if (now - session.lastActive > IDLE_EVICTION_MILLIS && counters.remove(sessionId, session)) {
+                evicted.add(new Delta(sessionId, session, 0, 0));
+            }
+        });
+
+        if (deltas.isEmpty()) return;
+
+        try {
+            redis.executePipelined((RedisCallback<Object>) connection -> {
+                for (Delta delta : deltas) {
+                    byte[] key = key(delta.sessionId()).getBytes(StandardCharsets.UTF_8);
+                    connection.hashCommands().hIncrBy(key, FIELD_YES.getBytes(StandardCharsets.UTF_8), delta.yes());
+                    connection.hashCommands().hIncrBy(key, FIELD_NO.getBytes(StandardCharsets.UTF_8), delta.no());
+                    connection.keyCommands().expire(key, LIVE_TTL.toSeconds());
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.error("Failed to flush live vote counters, keeping deltas for the next run: {}", e.getMessage());
+            for (Delta delta : deltas) {
+                Counters session = countersFor(delta.sessionId());
+                session.yes.add(delta.yes());
+                session.no.add(delta.no());
+            }
+        }
+    }
+
+    private static long parse(Object value) {
+        return value == null ? 0L : Long.parseLong((String) value);
+    }
+
+    static final class Counters {
+        private final LongAdder yes = new LongAdder();
+        private final LongAdder no = new LongAdder();
+        private long lastActive = System.currentTimeMillis(); // only touched by the flushing thread
+
+        void add(VoteType vote, long delta) {
+            (vote == VoteType.YES ? yes : no).add(delta);
+        }
+    }
+
+    private record Delta(Long sessionId, Counters session, long yes, long no) {
+    }
+}
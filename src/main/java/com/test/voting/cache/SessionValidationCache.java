@@ -1,46 +1,227 @@
 package com.test.voting.cache;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.test.voting.dto.SessionCache;
+import com.test.voting.exception.ResourceNotFoundException;
 import com.test.voting.model.Session;
-import com.test.voting.service.SessionService;
+import com.test.voting.model.enums.SessionStatus;
+import com.test.voting.repository.SessionRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
-import tools.jackson.databind.ObjectMapper;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class SessionValidationCache {
 
+    public static final String INVALIDATION_CHANNEL = "session:invalidate";
+
+    static final String FIELD_STATUS = "status";
+    static final String FIELD_EXPIRES_AT = "expiresAt";
+    private static final List<Object> STATE_FIELDS = List.of(FIELD_STATUS, FIELD_EXPIRES_AT);
+    private static final char ORIGIN_SEPARATOR = '|';
+
     private final StringRedisTemplate redis;
-    private final ObjectMapper objectMapper;
-    private final SessionService sessionService;
+    private final SessionRepository sessionRepository;
     private final Clock clock;
 
+    private final String nodeId = UUID.randomUUID().toString();
+
     private static final long EXTRA_TTL_SECONDS = 60;
     private static final Duration MIN_TTL = Duration.ofMinutes(1);
 
+    private static final long LOCAL_MAX_ENTRIES = 10_000;
+    private static final Duration LOCAL_MAX_STALENESS = Duration.ofSeconds(30);
+
+    private final Cache<Long, SessionCache> localCache = Caffeine.newBuilder()
+            .maximumSize(LOCAL_MAX_ENTRIES)
+            .expireAfterWrite(LOCAL_MAX_STALENESS)
+            .build();
+
+    private static final long MISSING_MAX_ENTRIES = 100_000;
+    private static final Duration MISSING_TTL = Duration.ofSeconds(5);
+
+    private final Cache<Long, String> missingSessions = Caffeine.newBuilder()
+            .maximumSize(MISSING_MAX_ENTRIES)
+            .expireAfterWrite(MISSING_TTL)
+            .build();
+
+    private final Map<Long, CompletableFuture<SessionCache>> inFlight = new ConcurrentHashMap<>();
+    private final Map<Long, CompletableFuture<SessionCache>> refreshing = new ConcurrentHashMap<>();
+
+    // The hash tag keeps the session and its vote reservations in the same cluster slot.
+    public static String key(Long sessionId) {
+        return "session:{" + sessionId + "}";
+    }
 
     public SessionCache get(Long sessionId) {
-        String key = "session:" + sessionId;
+        SessionCache local = localCache.getIfPresent(sessionId);
+        if (local != null) return local;
+
+        String key = key(sessionId);
+        return load(sessionId, inFlight, () -> getFromCache(key).orElseGet(() -> fetchFromDbAndCache(sessionId, key)));
+    }
+
+    public SessionCache refresh(Long sessionId) {
+        return load(sessionId, refreshing, () -> fetchFromDbAndCache(sessionId, key(sessionId)));
+    }
+
+    private SessionCache load(Long sessionId, Map<Long, CompletableFuture<SessionCache>> loads,
+                              Supplier<SessionCache> loader) {
+        String missing = missingSessions.getIfPresent(sessionId);
+        if (missing != null) throw new ResourceNotFoundException(missing);
+
+        CompletableFuture<SessionCache> loading = new CompletableFuture<>();
+        CompletableFuture<SessionCache> running = loads.putIfAbsent(sessionId, loading);
+        if (running != null) return await(running);
+
+        try {
+            SessionCache sessionCache = loader.get();
+            localCache.put(sessionId, sessionCache);
+            loading.complete(sessionCache);
+            return sessionCache;
+        } catch (ResourceNotFoundException e) {
+            missingSessions.put(sessionId, e.getMessage());
+            loading.completeExceptionally(e);
+            throw e;
+        } catch (Throwable e) {
+            loading.completeExceptionally(e);
+            throw e;
+        } finally {
+            loads.remove(sessionId, loading);
+        }
+    }
+
+    private static SessionCache await(CompletableFuture<SessionCache> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof ResourceNotFoundException notFound) {
+                throw new ResourceNotFoundException(notFound.getMessage());
+            }
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : e;
+        }
+    }
+
+    public void put(Session session) {
+        afterCommit(() -> write(session));
+    }
+
+    public void putAll(List<Session> sessions) {
+        if (sessions.isEmpty()) return;
+        afterCommit(() -> writeAll(sessions));
+    }
 
-        return getFromCache(key)
-                .orElseGet(() -> fetchFromDbAndCache(sessionId, key));
+    private void afterCommit(Runnable write) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    write.run();
+                }
+            });
+        } else {
+            write.run();
+        }
+    }
+
+    private void write(Session session) {
+        Long sessionId = session.getId();
+        SessionCache sessionCache = toSessionCache(session);
+        saveToCache(key(sessionId), sessionCache);
+        localCache.put(sessionId, sessionCache);
+        missingSessions.invalidate(sessionId);
+        broadcast(String.valueOf(sessionId));
+    }
+
+    private void writeAll(List<Session> sessions) {
+        Map<Long, SessionCache> states = new LinkedHashMap<>();
+        sessions.forEach(session -> states.put(session.getId(), toSessionCache(session)));
+        try {
+            redis.executePipelined((RedisCallback<Object>) connection -> {
+                states.forEach((sessionId, sessionCache) -> {
+                    byte[] key = bytes(key(sessionId));
+                    connection.hashCommands().hMSet(key, Map.of(
+                            bytes(FIELD_STATUS), bytes(sessionCache.status().name()),
+                            bytes(FIELD_EXPIRES_AT), bytes(String.valueOf(sessionCache.expiresAt().toEpochMilli()))));
+                    connection.keyCommands().expire(key, calculateTtl(sessionCache.expiresAt()).toSeconds());
+                });
+                return null;
+            });
+        } catch (Exception e) {
+            log.error("Failed to update Redis cache for {} sessions: {}", states.size(), e.getMessage());
+        }
+        localCache.putAll(states);
+        missingSessions.invalidateAll(states.keySet());
+        broadcast(states.keySet().stream().map(String::valueOf).collect(Collectors.joining(",")));
+    }
+
+    // Body is "<origin node>|<comma-separated ids>".
+    private void broadcast(String sessionIds) {
+        try {
+            redis.convertAndSend(INVALIDATION_CHANNEL, nodeId + ORIGIN_SEPARATOR + sessionIds);
+        } catch (Exception e) {
+            log.error("Failed to broadcast session cache update for sessions {}: {}", sessionIds, e.getMessage());
+        }
+    }
+
+    public void onInvalidation(String body) {
+        int separator = body.indexOf(ORIGIN_SEPARATOR);
+        if (separator >= 0 && body.substring(0, separator).equals(nodeId)) return;
+        try {
+            for (String sessionId : body.substring(separator + 1).split(",")) {
+                evictLocal(Long.valueOf(sessionId.trim()));
+            }
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed session invalidation message: {}", body);
+        }
+    }
+
+    public void invalidate(Long sessionId) {
+        localCache.invalidate(sessionId);
+        missingSessions.invalidate(sessionId);
+        try {
+            redis.delete(key(sessionId));
+        } catch (Exception e) {
+            log.error("Failed to invalidate session cache for session {}: {}", sessionId, e.getMessage());
+        }
+        broadcast(String.valueOf(sessionId));
+    }
+
+    public void evictLocal(Long sessionId) {
+        localCache.invalidate(sessionId);
+        missingSessions.invalidate(sessionId);
     }
 
     private Optional<SessionCache> getFromCache(String key) {
         try {
-            String json = redis.opsForValue().get(key);
-            if (json == null) return Optional.empty();
+            List<Object> values = redis.opsForHash().multiGet(key, STATE_FIELDS);
+            if (values.get(0) == null || values.get(1) == null) return Optional.empty();
 
-            return Optional.of(objectMapper.readValue(json, SessionCache.class));
+            return Optional.of(new SessionCache(
+                    SessionStatus.valueOf((String) values.get(0)),
+                    Instant.ofEpochMilli(Long.parseLong((String) values.get(1)))));
         } catch (Exception e) {
             log.error("Error reading from Redis cache (key={}). Falling back to the database.", key, e);
             return Optional.empty();
@@ -48,7 +229,8 @@ public class SessionValidationCache {
     }
 
     private SessionCache fetchFromDbAndCache(Long sessionId, String key) {
-        Session session = sessionService.findById(sessionId);
+        Session session = sessionRepository.findById(sessionId)
+                .orElseThrow(() -> new ResourceNotFoundException("Session not found with ID: " + sessionId));
         SessionCache sessionCache = toSessionCache(session);
 
         saveToCache(key, sessionCache);
@@ -66,8 +248,10 @@ public class SessionValidationCache {
 
     private void saveToCache(String key, SessionCache sessionCache) {
         try {
-            String json = objectMapper.writeValueAsString(sessionCache);
-            redis.opsForValue().set(key, json, calculateTtl(sessionCache.expiresAt()));
+            redis.opsForHash().putAll(key, Map.of(
+                    FIELD_STATUS, sessionCache.status().name(),
+                    FIELD_EXPIRES_AT, String.valueOf(sessionCache.expiresAt().toEpochMilli())));
+            redis.expire(key, calculateTtl(sessionCache.expiresAt()));
         } catch (Exception e) {
             log.error("Failed to update Redis cache for key={}: {}", key, e.getMessage());
         }
@@ -77,4 +261,8 @@ public class SessionValidationCache {
         Duration ttl = Duration.between(Instant.now(clock), expiresAt).plusSeconds(EXTRA_TTL_SECONDS);
         return (ttl.isNegative() || ttl.isZero()) ? MIN_TTL : ttl;
     }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
 }
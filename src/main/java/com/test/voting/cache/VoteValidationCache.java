@@ -1,39 +1,127 @@
 package com.test.voting.cache;
 
-import com.test.voting.repository.VoteRepository;
+import com.test.voting.dto.VoteMessage;
+import com.test.voting.model.enums.VoteAdmission;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class VoteValidationCache {
 
+    private static final long SESSION_NOT_CACHED = -1L;
+    private static final String RESERVATION_GRACE_MILLIS = String.valueOf(Duration.ofHours(1).toMillis());
+
     private final StringRedisTemplate redis;
-    private final VoteRepository voteRepository;
+    private final DegradedVoteAdmission degradedVoteAdmission;
+    private final SessionValidationCache sessionValidationCache;
+    private final RedisScript<Long> voteAdmissionScript;
+    private final RedisScript<Long> voteReleaseScript;
+
+    public static String key(Long sessionId) {
+        return "votes:{" + sessionId + "}";
+    }
+
+    static String claimsKey(Long sessionId, String token) {
+        return key(sessionId) + ":claims:" + token;
+    }
+
+    public VoteAdmission admit(Long sessionId, long cpf) {
+        return admit(sessionId, cpf, null, 0);
+    }
 
-    public boolean reserve(Long sessionId, String cpf, Duration ttl) {
-        String key = "vote:" + sessionId + ":" + cpf;
+    private VoteAdmission admit(Long sessionId, long cpf, String token, int slot) {
         try {
-            Boolean voteValidation = redis.opsForValue().setIfAbsent(key, "1", ttl);
-            return Boolean.TRUE.equals(voteValidation);
+            Long code = runAdmission(sessionId, cpf, token, slot);
+            if (code == SESSION_NOT_CACHED) {
+                sessionValidationCache.refresh(sessionId);
+                code = runAdmission(sessionId, cpf, token, slot);
+            }
+            if (code != SESSION_NOT_CACHED) {
+                return VoteAdmission.fromCode(code);
+            }
+            log.warn("Session {} still missing from Redis after refresh. Falling back to the database.", sessionId);
         } catch (Exception e) {
             log.error("Redis unavailable when validating duplicate vote. Error: {}", e.getMessage());
-            return !voteRepository.existsBySessionIdAndCpf(sessionId, cpf);
         }
+        return degradedVoteAdmission.admit(sessionId, cpf);
+    }
+
+    public List<VoteAdmission> admitAll(List<VoteMessage> votes) {
+        String token = UUID.randomUUID().toString();
+        List<Object> codes = runAdmissions(votes, token);
+
+        List<VoteAdmission> admissions = new ArrayList<>(votes.size());
+        for (int i = 0; i < votes.size(); i++) {
+            VoteMessage vote = votes.get(i);
+            // The first pipeline result is the SCRIPT LOAD reply.
+            Object code = codes == null ? null : codes.get(i + 1);
+            admissions.add(code instanceof Long c && c != SESSION_NOT_CACHED
+                    ? VoteAdmission.fromCode(c)
+                    : admit(vote.getSessionId(), vote.getCpf(), token, i));
+        }
+        return admissions;
     }
 
-    public void release(Long sessionId, String cpf) {
-        String key = "vote:" + sessionId + ":" + cpf;
+    public void release(Long sessionId, long cpf) {
+        degradedVoteAdmission.release(sessionId, cpf);
         try {
-            redis.delete(key);
+            redis.execute(voteReleaseScript, List.of(key(sessionId)), String.valueOf(cpf));
         } catch (Exception e) {
             log.error("Failed to release redis reservation. Error: {}", e.getMessage());
         }
     }
-}
 
+    private Long runAdmission(Long sessionId, long cpf, String token, int slot) {
+        if (token == null) {
+            return redis.execute(voteAdmissionScript,
+                    List.of(SessionValidationCache.key(sessionId), key(sessionId)),
+                    RESERVATION_GRACE_MILLIS, String.valueOf(cpf));
+        }
+        return redis.execute(voteAdmissionScript,
+                List.of(SessionValidationCache.key(sessionId), key(sessionId), claimsKey(sessionId, token)),
+                RESERVATION_GRACE_MILLIS, String.valueOf(cpf), String.valueOf(slot));
+    }
+
+    private List<Object> runAdmissions(List<VoteMessage> votes, String token) {
+        try {
+            byte[] script = bytes(voteAdmissionScript.getScriptAsString());
+            String sha = voteAdmissionScript.getSha1();
+            byte[] grace = bytes(RESERVATION_GRACE_MILLIS);
+
+            return redis.executePipelined((RedisCallback<Object>) connection -> {
+                connection.scriptingCommands().scriptLoad(script);
+                for (int i = 0; i < votes.size(); i++) {
+                    VoteMessage vote = votes.get(i);
+                    connection.scriptingCommands().evalSha(sha, ReturnType.INTEGER, 3,
+                            bytes(SessionValidationCache.key(vote.getSessionId())),
+                            bytes(key(vote.getSessionId())),
+                            bytes(claimsKey(vote.getSessionId(), token)),
+                            grace,
+                            bytes(String.valueOf(vote.getCpf())),
+                            bytes(String.valueOf(i)));
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.error("Pipelined vote admission failed, admitting one by one. Error: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
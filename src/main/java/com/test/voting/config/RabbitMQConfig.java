@@ -1,23 +1,29 @@
 package com.test.voting.config;
 
 import com.test.voting.messaging.RabbitNames;
+import com.test.voting.messaging.VoteBinaryMessageConverter;
 import org.springframework.amqp.core.*;
 import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.JacksonJsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 @Configuration
 public class RabbitMQConfig {
 
     @Bean
-    public MessageConverter jsonMessageConverter() {
-        return new JacksonJsonMessageConverter();
+    public MessageConverter jsonMessageConverter(VotePublishProperties publishProperties) {
+        return new VoteBinaryMessageConverter(new JacksonJsonMessageConverter(),
+                publishProperties.format() == VotePublishProperties.WireFormat.BINARY);
     }
 
     @Bean
@@ -25,24 +31,33 @@ public class RabbitMQConfig {
                                          MessageConverter jsonMessageConverter) {
         RabbitTemplate template = new RabbitTemplate(connectionFactory);
         template.setMessageConverter(jsonMessageConverter);
+        template.setMandatory(true);
         return template;
     }
 
     @Bean
     public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(
             ConnectionFactory connectionFactory,
-            MessageConverter jsonMessageConverter) {
+            MessageConverter jsonMessageConverter,
+            VoteIngestProperties ingestProperties,
+            VoteIngestTuningProperties tuningProperties,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
         SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
         factory.setConnectionFactory(connectionFactory);
         factory.setMessageConverter(jsonMessageConverter);
         factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
         factory.setConsumerBatchEnabled(true);
         factory.setBatchListener(true);
-        factory.setBatchSize(50);
-        factory.setPrefetchCount(100);
+        factory.setBatchSize(ingestProperties.batchSize());
+        factory.setPrefetchCount((tuningProperties.enabled()
+                ? Math.max(ingestProperties.batchSize(), tuningProperties.maxBatchSize())
+                : ingestProperties.batchSize()) * 2);
         factory.setConcurrentConsumers(2);
         factory.setMaxConcurrentConsumers(4);
         factory.setReceiveTimeout(500L);
+        if (virtualThreads) {
+            factory.setTaskExecutor(new VirtualThreadTaskExecutor("rabbit-consumer-"));
+        }
         return factory;
     }
 
@@ -77,6 +92,43 @@ public class RabbitMQConfig {
         return QueueBuilder.durable(RabbitNames.QUEUE_DLQ).build();
     }
 
+    @Bean
+    public Declarables voteShardQueues(VoteShardProperties shardProperties) {
+        List<Declarable> declarables = new ArrayList<>();
+        for (int shard = 0; shard < shardProperties.count(); shard++) {
+            Queue queue = QueueBuilder.durable(RabbitNames.shardQueue(shard))
+                    .withArguments(Map.of(
+                            "x-dead-letter-exchange", RabbitNames.EXCHANGE,
+                            "x-dead-letter-routing-key", RabbitNames.RK_DLQ
+                    ))
+                    .build();
+            declarables.add(queue);
+            declarables.add(BindingBuilder.bind(queue).to(votesExchange()).with(RabbitNames.shardRoutingKey(shard)));
+        }
+        return new Declarables(declarables);
+    }
+
+    // Jitter lives in the queue TTLs, not per-message expirations: RabbitMQ only expires at the head.
+    @Bean
+    public Declarables voteRetryQueues(VoteRetryProperties retryProperties) {
+        List<Declarable> declarables = new ArrayList<>();
+        for (int tier = 0; tier < retryProperties.maxRetries(); tier++) {
+            for (int slot = 0; slot < retryProperties.queuesPerTier(); slot++) {
+                Queue queue = QueueBuilder.durable(RabbitNames.retryQueue(tier, slot))
+                        .withArguments(Map.of(
+                                "x-message-ttl", retryProperties.delayMillis(tier, slot),
+                                "x-dead-letter-exchange", RabbitNames.EXCHANGE,
+                                "x-dead-letter-routing-key", RabbitNames.RK_CREATE
+                        ))
+                        .build();
+                declarables.add(queue);
+                declarables.add(BindingBuilder.bind(queue).to(votesExchange())
+                        .with(RabbitNames.retryRoutingKey(tier, slot)));
+            }
+        }
+        return new Declarables(declarables);
+    }
+
     @Bean
     public Binding votesBinding() {
         return BindingBuilder.bind(votesQueue()).to(votesExchange()).with(RabbitNames.RK_CREATE);
@@ -0,0 +1,37 @@
+package com.test.voting.config;
+
+import com.test.voting.cache.SessionValidationCache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+@Configuration
+public class RedisConfig {
+
+    @Bean
+    public RedisScript<Long> voteAdmissionScript() {
+        return RedisScript.of(new ClassPathResource("scripts/vote-admission.lua"), Long.class);
+    }
+
+    @Bean
+    public RedisScript<Long> voteReleaseScript() {
+        return RedisScript.of(new ClassPathResource("scripts/vote-release.lua"), Long.class);
+    }
+
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                       SessionValidationCache sessionValidationCache) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener((message, pattern) ->
+                sessionValidationCache.onInvalidation(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(SessionValidationCache.INVALIDATION_CHANNEL));
+        return container;
+    }
+}
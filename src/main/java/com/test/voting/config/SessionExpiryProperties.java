@@ -0,0 +1,11 @@
+package com.test.voting.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "app.sessions.expiry")
+public record SessionExpiryProperties(
+    @DefaultValue("1000") long intervalMs,
+    @DefaultValue("1000") int batchSize
+) {
+}
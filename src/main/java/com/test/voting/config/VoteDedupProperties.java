@@ -0,0 +1,16 @@
+package com.test.voting.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "app.votes.dedup")
+public record VoteDedupProperties(
+    @DefaultValue("5ms") Duration window,
+    @DefaultValue("512") int maxBatch,
+    @DefaultValue("2s") Duration timeout,
+    @DefaultValue("1h") Duration admittedTtl,
+    @DefaultValue("2000000") long admittedMaxSize
+) {
+}
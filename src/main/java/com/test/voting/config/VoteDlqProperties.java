@@ -0,0 +1,22 @@
+package com.test.voting.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.Set;
+
+@ConfigurationProperties(prefix = "app.votes.dlq")
+public record VoteDlqProperties(
+    @DefaultValue("1000") int batchSize,
+    @DefaultValue({
+        "CannotCreateTransactionException",
+        "CannotGetJdbcConnectionException",
+        "DataAccessResourceFailureException",
+        "TransientDataAccessResourceException",
+        "RecoverableDataAccessException",
+        "QueryTimeoutException",
+        "CannotAcquireLockException",
+        "PessimisticLockingFailureException"
+    }) Set<String> recoverableErrorTypes
+) {
+}
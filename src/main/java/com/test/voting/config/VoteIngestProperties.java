@@ -0,0 +1,16 @@
+package com.test.voting.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "app.votes.ingest")
+public record VoteIngestProperties(
+    @DefaultValue("BATCH") Mode mode,
+    @DefaultValue("50") int batchSize
+) {
+    public enum Mode {
+        BATCH,
+        COPY,
+        UNNEST
+    }
+}
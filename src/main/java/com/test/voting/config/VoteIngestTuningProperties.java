@@ -0,0 +1,17 @@
+package com.test.voting.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "app.votes.ingest.tuning")
+public record VoteIngestTuningProperties(
+    @DefaultValue("false") boolean enabled,
+    @DefaultValue("2000") long intervalMs,
+    @DefaultValue("1000") long lagSloMs,
+    @DefaultValue("10") int minBatchSize,
+    @DefaultValue("500") int maxBatchSize,
+    @DefaultValue("1") int minConsumers,
+    @DefaultValue("4") int maxConsumers,
+    @DefaultValue("5") int reservedConnections
+) {
+}
@@ -0,0 +1,12 @@
+package com.test.voting.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+// Partition bounds are fixed once created: sessionsPerPartition must not change on a live database.
+@ConfigurationProperties(prefix = "app.votes.partition")
+public record VotePartitionProperties(
+    @DefaultValue("100") long sessionsPerPartition,
+    @DefaultValue("2") int blocksAhead
+) {
+}
@@ -0,0 +1,32 @@
+package com.test.voting.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "app.votes.publish")
+public record VotePublishProperties(
+    @DefaultValue("ASYNC") Durability durability,
+    @DefaultValue("2s") Duration confirmTimeout,
+    @DefaultValue Batching batching,
+    @DefaultValue("BINARY") WireFormat format
+) {
+    public enum Durability {
+        ASYNC,
+        CONFIRMED
+    }
+
+    public enum WireFormat {
+        JSON,
+        BINARY
+    }
+
+    public record Batching(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("200") int maxVotes,
+        @DefaultValue("500us") Duration linger,
+        @DefaultValue("10000") int capacity
+    ) {
+    }
+}
@@ -0,0 +1,25 @@
+package com.test.voting.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "app.votes.retry")
+public record VoteRetryProperties(
+    @DefaultValue({"1s", "5s", "30s", "2m"}) List<Duration> delays,
+    @DefaultValue("0.2") double jitter,
+    @DefaultValue("5") int queuesPerTier
+) {
+    public int maxRetries() {
+        return delays.size();
+    }
+
+    public long delayMillis(int tier, int slot) {
+        long delay = delays.get(tier).toMillis();
+        if (queuesPerTier <= 1) return delay;
+        double factor = 1 - jitter + 2 * jitter * slot / (queuesPerTier - 1);
+        return Math.max(1, Math.round(delay * factor));
+    }
+}
@@ -0,0 +1,23 @@
+package com.test.voting.config;
+
+import com.test.voting.messaging.RabbitNames;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "app.votes.shard")
+public record VoteShardProperties(
+    @DefaultValue("4") int count,
+    @DefaultValue("1") int consumersPerShard
+) {
+    public boolean enabled() {
+        return count > 0;
+    }
+
+    public int shardOf(Long sessionId) {
+        return Math.floorMod(Long.hashCode(sessionId), count);
+    }
+
+    public String routingKey(Long sessionId) {
+        return enabled() ? RabbitNames.shardRoutingKey(shardOf(sessionId)) : RabbitNames.RK_CREATE;
+    }
+}
@@ -0,0 +1,19 @@
+package com.test.voting.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+// directory must be on a persistent volume, or a restart during an outage loses the spool.
+@ConfigurationProperties(prefix = "app.votes.spool")
+public record VoteSpoolProperties(
+    @DefaultValue("true") boolean enabled,
+    @DefaultValue("data/spool") String directory,
+    @DefaultValue("67108864") int segmentBytes,
+    @DefaultValue("2ms") Duration syncInterval,
+    @DefaultValue("1s") Duration syncTimeout,
+    @DefaultValue("500") int drainBatchSize,
+    @DefaultValue("1s") Duration drainBackoff
+) {
+}
@@ -0,0 +1,41 @@
+package com.test.voting.controller;
+
+import com.test.voting.dto.DlqReplayRequest;
+import com.test.voting.dto.DlqReplayStatus;
+import com.test.voting.service.DlqReplayService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/admin/dlq")
+@RequiredArgsConstructor
+@Slf4j
+public class DlqReplayController {
+
+    private final DlqReplayService dlqReplayService;
+
+    @PostMapping("/replay")
+    public ResponseEntity<DlqReplayStatus> replay(@RequestParam(defaultValue = "true") boolean dryRun,
+                                                  @RequestParam(defaultValue = "0") long maxMessages,
+                                                  @RequestParam(defaultValue = "0") int ratePerSecond,
+                                                  @RequestParam(required = false) Set<String> errorTypes) {
+        DlqReplayStatus status = dlqReplayService.start(
+                new DlqReplayRequest(dryRun, maxMessages, ratePerSecond, errorTypes));
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(status);
+    }
+
+    @GetMapping("/replay")
+    public ResponseEntity<DlqReplayStatus> status() {
+        return ResponseEntity.of(dlqReplayService.status());
+    }
+
+    @DeleteMapping("/replay")
+    public ResponseEntity<DlqReplayStatus> cancel() {
+        return ResponseEntity.of(dlqReplayService.cancel());
+    }
+}
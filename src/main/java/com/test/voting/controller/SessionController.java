@@ -1,15 +1,19 @@
 package com.test.voting.controller;
 
+import com.test.voting.dto.ResultReconciliation;
 import com.test.voting.dto.ResultResponse;
 import com.test.voting.dto.SessionResponse;
 import com.test.voting.dto.SessionRequest;
+import com.test.voting.service.ResultStreamBroadcaster;
 import com.test.voting.service.SessionService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/session")
@@ -18,6 +22,7 @@ import org.springframework.web.bind.annotation.*;
 public class SessionController {
 
     private final SessionService sessionService;
+    private final ResultStreamBroadcaster resultStreamBroadcaster;
 
     @PostMapping
     public ResponseEntity<SessionResponse> createSession(@Valid @RequestBody SessionRequest request) {
@@ -26,8 +31,19 @@ public class SessionController {
     }
 
     @GetMapping("/result/{sessionId}")
-    public ResponseEntity<ResultResponse> getResult(@PathVariable Long sessionId) {
-        ResultResponse response = sessionService.getResult(sessionId);
+    public ResponseEntity<ResultResponse> getResult(@PathVariable Long sessionId,
+                                                    @RequestParam(defaultValue = "false") boolean live) {
+        ResultResponse response = sessionService.getResult(sessionId, live);
         return ResponseEntity.ok(response);
     }
+
+    @GetMapping("/result/{sessionId}/reconciliation")
+    public ResponseEntity<ResultReconciliation> reconcileResult(@PathVariable Long sessionId) {
+        return ResponseEntity.ok(sessionService.reconcileResult(sessionId));
+    }
+
+    @GetMapping(path = "/result/{sessionId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamResult(@PathVariable Long sessionId) {
+        return resultStreamBroadcaster.subscribe(sessionId);
+    }
 }
@@ -1,13 +1,24 @@
 package com.test.voting.controller;
 
+import com.test.voting.dto.VoteBatchItemResponse;
 import com.test.voting.dto.VoteRequest;
 import com.test.voting.dto.VoteResponse;
 import com.test.voting.service.VoteService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
 
 @RestController
 @RequestMapping("/api/votes")
@@ -15,7 +26,11 @@ import org.springframework.web.bind.annotation.*;
 @Slf4j
 public class VoteController {
 
+    static final String APPLICATION_NDJSON = "application/x-ndjson";
+    static final int MAX_BATCH_SIZE = 5_000;
+
     private final VoteService voteService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public ResponseEntity<VoteResponse> registerVote(@Valid @RequestBody VoteRequest request) {
@@ -25,4 +40,45 @@ public class VoteController {
                 .status(voteResponse.httpStatus())
                 .body(voteResponse);
     }
+
+    @PostMapping(path = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<VoteBatchItemResponse>> registerVotes(@RequestBody List<VoteRequest> requests) {
+        int nullIndex = requests.indexOf(null);
+        if (nullIndex >= 0) {
+            throw new IllegalArgumentException("Malformed vote at index " + nullIndex);
+        }
+        return ResponseEntity.ok(registerBatch(requests));
+    }
+
+    @PostMapping(path = "/batch", consumes = APPLICATION_NDJSON)
+    public ResponseEntity<List<VoteBatchItemResponse>> registerVotesNdjson(HttpServletRequest request) throws IOException {
+        List<VoteRequest> requests = new ArrayList<>();
+        try (BufferedReader reader = request.getReader()) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) continue;
+                if (requests.size() == MAX_BATCH_SIZE) {
+                    throw new IllegalArgumentException("A batch accepts at most " + MAX_BATCH_SIZE + " votes");
+                }
+                try {
+                    requests.add(objectMapper.readValue(line, VoteRequest.class));
+                } catch (JacksonException e) {
+                    throw new IllegalArgumentException("Malformed vote at line " + lineNumber);
+                }
+            }
+        }
+        return ResponseEntity.ok(registerBatch(requests));
+    }
+
+    private List<VoteBatchItemResponse> registerBatch(List<VoteRequest> requests) {
+        if (requests.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("A batch accepts at most " + MAX_BATCH_SIZE + " votes");
+        }
+        List<VoteResponse> responses = voteService.registerVotes(requests);
+        return IntStream.range(0, responses.size())
+                .mapToObj(i -> VoteBatchItemResponse.of(i, responses.get(i)))
+                .toList();
+    }
 }
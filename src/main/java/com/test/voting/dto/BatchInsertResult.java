@@ -0,0 +1,14 @@
+package com.test.voting.dto;
+
+import java.util.List;
+
+public record BatchInsertResult(
+    int inserted,
+    int duplicates,
+    List<TallyDelta> tallies
+) {
+    public static BatchInsertResult of(int batchSize, List<TallyDelta> tallies) {
+        int inserted = (int) tallies.stream().mapToLong(TallyDelta::total).sum();
+        return new BatchInsertResult(inserted, batchSize - inserted, tallies);
+    }
+}
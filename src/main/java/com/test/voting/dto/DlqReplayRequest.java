@@ -0,0 +1,11 @@
+package com.test.voting.dto;
+
+import java.util.Set;
+
+public record DlqReplayRequest(
+    boolean dryRun,
+    long maxMessages,
+    int ratePerSecond,
+    Set<String> errorTypes
+) {
+}
@@ -0,0 +1,26 @@
+package com.test.voting.dto;
+
+import java.time.Instant;
+import java.util.Map;
+
+public record DlqReplayStatus(
+    State state,
+    boolean dryRun,
+    long target,
+    long scanned,
+    long replayedMessages,
+    long replayedVotes,
+    long kept,
+    Map<String, Long> byErrorType,
+    double messagesPerSecond,
+    Instant startedAt,
+    Instant finishedAt,
+    String error
+) {
+    public enum State {
+        RUNNING,
+        COMPLETED,
+        CANCELLED,
+        FAILED
+    }
+}
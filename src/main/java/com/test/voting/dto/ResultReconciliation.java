@@ -0,0 +1,10 @@
+package com.test.voting.dto;
+
+public record ResultReconciliation(
+    Long sessionId,
+    ResultResponse.VoteCount live,
+    ResultResponse.VoteCount tally,
+    ResultResponse.VoteCount persisted,
+    boolean consistent
+) {
+}
@@ -0,0 +1,11 @@
+package com.test.voting.dto;
+
+public record TallyDelta(
+    Long sessionId,
+    long yes,
+    long no
+) {
+    public long total() {
+        return yes + no;
+    }
+}
@@ -0,0 +1,16 @@
+package com.test.voting.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.test.voting.model.enums.VoteStatus;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record VoteBatchItemResponse(
+        int index,
+        int httpStatus,
+        String message,
+        VoteStatus status
+) {
+    public static VoteBatchItemResponse of(int index, VoteResponse response) {
+        return new VoteBatchItemResponse(index, response.httpStatus().value(), response.message(), response.status());
+    }
+}
@@ -0,0 +1,22 @@
+package com.test.voting.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class VoteBatchMessage implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private List<VoteMessage> votes;
+}
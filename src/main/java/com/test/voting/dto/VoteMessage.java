@@ -19,6 +19,7 @@ public class VoteMessage implements Serializable {
     private static final long serialVersionUID = 1L;
 
     private Long sessionId;
-    private String cpf;
+    private long cpf;
     private VoteType vote;
+    private Long acceptedAt;
 }
@@ -31,4 +31,12 @@ public record VoteResponse(
     public static VoteResponse invalidSession() {
         return new VoteResponse(HttpStatus.CONFLICT, "Session expired or closed.", null);
     }
+
+    public static VoteResponse invalidRequest(String message) {
+        return new VoteResponse(HttpStatus.BAD_REQUEST, message, null);
+    }
+
+    public static VoteResponse sessionNotFound(String message) {
+        return new VoteResponse(HttpStatus.NOT_FOUND, message, null);
+    }
 }
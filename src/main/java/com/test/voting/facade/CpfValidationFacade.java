@@ -8,19 +8,27 @@ import org.springframework.stereotype.Component;
 import java.util.Random;
 import java.util.regex.Pattern;
 
+import static com.test.voting.utils.CpfUtils.parseCpf;
+
 @Component
 @Slf4j
 public class CpfValidationFacade {
 
     private final Random random = new Random();
     private static final Pattern CPF_LENGTH = Pattern.compile("\\d{11}");
-    private static final Pattern ALL_SAME = Pattern.compile("(\\d)\\1{10}");
+    private static final long MAX_CPF = 99_999_999_999L;
+    private static final long ALL_SAME_DIGITS = 11_111_111_111L;
 
     public CpfValidationResponse validateCpf(String cpf) {
+        if (!CPF_LENGTH.matcher(cpf).matches()) return null;
+        return validateCpf(parseCpf(cpf));
+    }
+
+    public CpfValidationResponse validateCpf(long cpf) {
         log.debug("Validating CPF: {}", cpf);
 
-        if (!CPF_LENGTH.matcher(cpf).matches()) return null;
-        if (ALL_SAME.matcher(cpf).matches()) return null;
+        if (cpf < 0 || cpf > MAX_CPF) return null;
+        if (cpf % ALL_SAME_DIGITS == 0) return null;
 
         if (!isValidCpf(cpf)) {
             log.warn("CPF with invalid check digit: {}", cpf);
@@ -29,7 +37,7 @@ public class CpfValidationFacade {
 
         boolean unable = random.nextInt(100) < 5;
         VoteStatus status = unable ? VoteStatus.UNABLE_TO_VOTE : VoteStatus.ABLE_TO_VOTE;
-        
+
         log.debug("CPF {} validation result: {}", cpf, status);
 
         if (status == VoteStatus.UNABLE_TO_VOTE) {
@@ -39,29 +47,30 @@ public class CpfValidationFacade {
         return new CpfValidationResponse(status);
     }
 
-    private boolean isValidCpf(String cpf) {
-        try {
-            int sum = 0;
-            for (int i = 0; i < 9; i++) {
-                sum += Character.getNumericValue(cpf.charAt(i)) * (10 - i);
-            }
-            int firstDigit = 11 - (sum % 11);
-            if (firstDigit >= 10) firstDigit = 0;
-
-            if (firstDigit != Character.getNumericValue(cpf.charAt(9))) {
-                return false;
-            }
-
-            sum = 0;
-            for (int i = 0; i < 10; i++) {
-                sum += Character.getNumericValue(cpf.charAt(i)) * (11 - i);
-            }
-            int secondDigit = 11 - (sum % 11);
-            if (secondDigit >= 10) secondDigit = 0;
-
-            return secondDigit == Character.getNumericValue(cpf.charAt(10));
-        } catch (Exception e) {
+    private boolean isValidCpf(long cpf) {
+        long base = cpf / 100;
+        int checkDigits = (int) (cpf % 100);
+
+        int sum = 0;
+        int secondSum = 0;
+        for (int weight = 2; weight <= 10; weight++) {
+            int digit = (int) (base % 10);
+            sum += digit * weight;
+            secondSum += digit * (weight + 1);
+            base /= 10;
+        }
+
+        int firstDigit = 11 - (sum % 11);
+        if (firstDigit >= 10) firstDigit = 0;
+
+        if (firstDigit != checkDigits / 10) {
             return false;
         }
+
+        secondSum += firstDigit * 2;
+        int secondDigit = 11 - (secondSum % 11);
+        if (secondDigit >= 10) secondDigit = 0;
+
+        return secondDigit == checkDigits % 10;
     }
 }
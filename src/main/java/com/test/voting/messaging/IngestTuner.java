@@ -0,0 +1,154 @@
+package com.test.voting.messaging;
+
+import com.test.voting.config.VoteIngestProperties;
+import com.test.voting.config.VoteIngestTuningProperties;
+import com.test.voting.config.VoteShardProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IngestTuner {
+
+    private final VoteIngestTuningProperties tuning;
+    private final VoteIngestProperties ingestProperties;
+    private final VoteShardProperties shardProperties;
+    private final RabbitListenerEndpointRegistry listenerRegistry;
+    private final AmqpAdmin amqpAdmin;
+    private final DataSource dataSource;
+
+    private final LongAdder rows = new LongAdder();
+    private final AtomicLong maxLagMillis = new AtomicLong();
+    private long windowStart = System.nanoTime();
+
+    private Settings current;
+    private double lastRowsPerSecond;
+    private boolean lastGrewBatch;
+
+    public void recordBatch(int batchRows, long lagMillis) {
+        rows.add(batchRows);
+        maxLagMillis.accumulateAndGet(lagMillis, Math::max);
+    }
+
+    @Scheduled(fixedDelayString = "${app.votes.ingest.tuning.interval-ms:2000}")
+    public void tune() {
+        if (!tuning.enabled()) return;
+
+        List<SimpleMessageListenerContainer> containers = listenerRegistry.getListenerContainers().stream()
+                .filter(SimpleMessageListenerContainer.class::isInstance)
+                .map(SimpleMessageListenerContainer.class::cast)
+                .toList();
+        if (containers.isEmpty()) return;
+
+        boolean first = current == null;
+        if (first) {
+            current = new Settings(ingestProperties.batchSize(), tuning.minConsumers());
+        }
+        Settings next = decide(current, sample(containers.size()));
+        if (first || !next.equals(current)) {
+            log.info("Ingest tuning - batchSize: {} -> {}, consumers per container: {} -> {}",
+                    current.batchSize(), next.batchSize(), current.consumers(), next.consumers());
+            containers.forEach(container -> apply(container, next));
+            current = next;
+        }
+    }
+
+    Settings decide(Settings settings, Sample sample) {
+        int cap = consumerCap(sample);
+        int batchSize = settings.batchSize();
+        int consumers = Math.min(settings.consumers(), cap);
+        boolean grewBatch = false;
+
+        if (sample.awaitingConnections() > 0) {
+            consumers = Math.max(tuning.minConsumers(), consumers - 1);
+        } else if (backlogged(settings, sample)) {
+            if (lastGrewBatch && sample.rowsPerSecond() < lastRowsPerSecond * 0.95) {
+                batchSize = Math.max(tuning.minBatchSize(), batchSize * 2 / 3);
+                consumers = Math.min(cap, consumers + 1);
+            } else if (batchSize < tuning.maxBatchSize()) {
+                batchSize = Math.min(tuning.maxBatchSize(), batchSize * 3 / 2);
+                grewBatch = true;
+            } else {
+                consumers = Math.min(cap, consumers + 1);
+            }
+        } else if (sample.queueDepth() < (long) batchSize * sample.containers()) {
+            batchSize = Math.max(tuning.minBatchSize(), batchSize / 2);
+            consumers = Math.max(tuning.minConsumers(), consumers - 1);
+        }
+
+        lastGrewBatch = grewBatch;
+        lastRowsPerSecond = sample.rowsPerSecond();
+        return new Settings(batchSize, consumers);
+    }
+
+    private boolean backlogged(Settings settings, Sample sample) {
+        long inFlight = (long) settings.batchSize() * settings.consumers() * sample.containers();
+        return sample.maxLagMillis() > tuning.lagSloMs() || sample.queueDepth() > 2 * inFlight;
+    }
+
+    private int consumerCap(Sample sample) {
+        int perContainer = (sample.poolSize() - tuning.reservedConnections()) / sample.containers();
+        return Math.max(tuning.minConsumers(), Math.min(tuning.maxConsumers(), perContainer));
+    }
+
+    private Sample sample(int containers) {
+        long now = System.nanoTime();
+        double seconds = Math.max(now - windowStart, 1) / 1e9;
+        windowStart = now;
+
+        HikariPoolMXBean pool = dataSource instanceof HikariDataSource hikari ? hikari.getHikariPoolMXBean() : null;
+        int poolSize = dataSource instanceof HikariDataSource hikari ? hikari.getMaximumPoolSize() : Integer.MAX_VALUE;
+
+        return new Sample(
+                rows.sumThenReset() / seconds,
+                maxLagMillis.getAndSet(0),
+                queueDepth(),
+                poolSize,
+                pool != null ? pool.getThreadsAwaitingConnection() : 0,
+                containers);
+    }
+
+    private long queueDepth() {
+        List<String> queues = new ArrayList<>();
+        queues.add(RabbitNames.QUEUE);
+        for (int shard = 0; shard < shardProperties.count(); shard++) {
+            queues.add(RabbitNames.shardQueue(shard));
+        }
+        long depth = 0;
+        for (String queue : queues) {
+            QueueInformation info = amqpAdmin.getQueueInfo(queue);
+            if (info != null) depth += info.getMessageCount();
+        }
+        return depth;
+    }
+
+    private void apply(SimpleMessageListenerContainer container, Settings settings) {
+        container.setBatchSize(settings.batchSize());
+        container.setMaxConcurrentConsumers(Integer.MAX_VALUE);
+        container.setConcurrentConsumers(settings.consumers());
+        container.setMaxConcurrentConsumers(settings.consumers());
+        container.setReceiveTimeout(Math.clamp(tuning.lagSloMs() / 4, 50L, 500L));
+    }
+
+    record Settings(int batchSize, int consumers) {
+    }
+
+    record Sample(double rowsPerSecond, long maxLagMillis, long queueDepth,
+                  int poolSize, int awaitingConnections, int containers) {
+    }
+}
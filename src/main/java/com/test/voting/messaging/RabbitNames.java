@@ -7,12 +7,33 @@ public final class RabbitNames {
     public static final String QUEUE       = "votes.queue";
     public static final String QUEUE_RETRY = "votes.queue.retry";
     public static final String QUEUE_DLQ   = "votes.queue.dlq";
+    public static final String QUEUE_SHARD = "votes.queue.shard.";
+    public static final String QUEUE_RETRY_TIER = "votes.queue.retry.";
 
     public static final String RK_CREATE   = "votes.create";
     public static final String RK_RETRY    = "votes.create.retry";
     public static final String RK_DLQ      = "votes.create.dlq";
+    public static final String RK_SHARD    = "votes.create.shard.";
+    public static final String RK_RETRY_TIER = "votes.create.retry.";
 
     public static final String HEADER_RETRY_COUNT   = "x-retry-count";
     public static final String HEADER_ERROR_TYPE     = "x-error-type";
     public static final String HEADER_ERROR_MESSAGE  = "x-error-message";
+    public static final String HEADER_PARKED         = "x-parked";
+
+    public static String shardQueue(int shard) {
+        return QUEUE_SHARD + shard;
+    }
+
+    public static String shardRoutingKey(int shard) {
+        return RK_SHARD + shard;
+    }
+
+    public static String retryQueue(int tier, int slot) {
+        return QUEUE_RETRY_TIER + tier + "." + slot;
+    }
+
+    public static String retryRoutingKey(int tier, int slot) {
+        return RK_RETRY_TIER + tier + "." + slot;
+    }
 }
@@ -0,0 +1,168 @@
+package com.test.voting.messaging;
+
+import com.test.voting.config.VotePublishProperties;
+import com.test.voting.config.VoteShardProperties;
+import com.test.voting.dto.VoteMessage;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class VoteBatcher {
+
+    static final String OVERFLOW_METRIC = "votes.publish.batcher.overflow";
+
+    private final VoteRoutingPublisher routingPublisher;
+    private final VoteSpool voteSpool;
+    private final MeterRegistry meterRegistry;
+    private final VotePublishProperties publishProperties;
+    private final VoteShardProperties shardProperties;
+
+    private BlockingQueue<PendingVote> buffer;
+    private Thread flusher;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        VotePublishProperties.Batching batching = publishProperties.batching();
+        if (!batching.enabled()) return;
+
+        buffer = new ArrayBlockingQueue<>(batching.capacity());
+        running = true;
+        flusher = Thread.ofPlatform().name("vote-batcher").daemon().start(this::run);
+        log.info("Vote micro-batching enabled - maxVotes: {}, linger: {}", batching.maxVotes(), batching.linger());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (flusher == null) return;
+        running = false;
+        try {
+            flusher.join(publishProperties.confirmTimeout().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public void submit(VoteMessage vote) {
+        PendingVote pending = new PendingVote(vote, new CompletableFuture<>());
+        if (!buffer.offer(pending)) {
+            meterRegistry.counter(OVERFLOW_METRIC).increment();
+            routingPublisher.publishToMain(vote);
+            return;
+        }
+        if (publishProperties.durability() == VotePublishProperties.Durability.CONFIRMED) {
+            await(pending.published());
+        }
+    }
+
+    private void run() {
+        int maxVotes = publishProperties.batching().maxVotes();
+        long lingerNanos = publishProperties.batching().linger().toNanos();
+        List<PendingVote> batch = new ArrayList<>(maxVotes);
+
+        while (running || !buffer.isEmpty()) {
+            try {
+                PendingVote first = buffer.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < maxVotes) {
+                    buffer.drainTo(batch, maxVotes - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= maxVotes || remaining <= 0) break;
+                    PendingVote next = buffer.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    void flush(List<PendingVote> batch) {
+        Map<String, List<PendingVote>> byRoutingKey = new LinkedHashMap<>();
+        for (PendingVote pending : batch) {
+            byRoutingKey.computeIfAbsent(shardProperties.routingKey(pending.vote().getSessionId()),
+                    key -> new ArrayList<>()).add(pending);
+        }
+        byRoutingKey.values().forEach(this::flushEnvelope);
+    }
+
+    private void flushEnvelope(List<PendingVote> pending) {
+        List<VoteMessage> votes = pending.stream().map(PendingVote::vote).toList();
+        try {
+            VoteCorrelation correlation = routingPublisher.publishEnvelopeToMain(votes);
+            correlation.getFuture().whenComplete((confirm, ex) -> {
+                if ("ack".equals(VoteRoutingPublisher.outcome(correlation, confirm, ex))) {
+                    pending.forEach(p -> p.published().complete(null));
+                } else {
+                    AmqpException failure = new AmqpException("Vote envelope not accepted by broker");
+                    pending.forEach(p -> p.published().completeExceptionally(failure));
+                }
+            });
+        } catch (Exception ex) {
+            log.error("Failed to publish envelope of {} votes: {}", votes.size(), ex.getMessage());
+            if (spool(votes)) {
+                pending.forEach(p -> p.published().complete(null));
+                return;
+            }
+            if (publishProperties.durability() == VotePublishProperties.Durability.ASYNC) {
+                votes.forEach(routingPublisher::revoke);
+            }
+            pending.forEach(p -> p.published().completeExceptionally(ex));
+        }
+    }
+
+    private boolean spool(List<VoteMessage> votes) {
+        if (!voteSpool.isEnabled()) return false;
+        try {
+            voteSpool.spool(votes);
+            return true;
+        } catch (RuntimeException ex) {
+            log.error("Failed to spool envelope of {} votes: {}", votes.size(), ex.getMessage());
+            return false;
+        }
+    }
+
+    private void await(CompletableFuture<Void> published) {
+        long timeout = publishProperties.batching().linger().toNanos()
+                + publishProperties.confirmTimeout().toNanos();
+        try {
+            published.get(timeout, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new AmqpException("Timed out waiting for broker confirm", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof AmqpException amqp ? amqp : new AmqpException("Broker confirm failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AmqpException("Interrupted waiting for broker confirm", e);
+        }
+    }
+
+    record PendingVote(VoteMessage vote, CompletableFuture<Void> published) {
+    }
+}
@@ -0,0 +1,110 @@
+package com.test.voting.messaging;
+
+import com.test.voting.dto.VoteBatchMessage;
+import com.test.voting.dto.VoteMessage;
+import com.test.voting.model.enums.VoteType;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-layout encoding for {@link VoteMessage} and {@link VoteBatchMessage}, version 1:
+ * <pre>
+ * kind:u8 (0 = single vote, 1 = envelope) [count:i32 when envelope]
+ * then per vote: sessionId:i64 cpf:i64 vote:u8 acceptedAt:i64 (epoch millis, -1 when unknown)
+ * </pre>
+ */
+public class VoteBinaryMessageConverter implements MessageConverter {
+
+    public static final String CONTENT_TYPE = "application/x-vote";
+    public static final String HEADER_FORMAT_VERSION = "x-vote-format";
+    static final int FORMAT_VERSION = 1;
+    static final int VOTE_BYTES = 8 + 8 + 1 + 8;
+
+    private static final byte KIND_SINGLE = 0;
+    private static final byte KIND_ENVELOPE = 1;
+    private static final long NO_TIMESTAMP = -1L;
+
+    private final MessageConverter fallback;
+    private final boolean writeBinary;
+
+    public VoteBinaryMessageConverter(MessageConverter fallback, boolean writeBinary) {
+        this.fallback = fallback;
+        this.writeBinary = writeBinary;
+    }
+
+    @Override
+    public Message toMessage(Object object, MessageProperties messageProperties) {
+        if (!writeBinary) return fallback.toMessage(object, messageProperties);
+
+        ByteBuffer buffer;
+        if (object instanceof VoteMessage vote) {
+            buffer = ByteBuffer.allocate(1 + VOTE_BYTES).put(KIND_SINGLE);
+            write(buffer, vote);
+        } else if (object instanceof VoteBatchMessage envelope) {
+            List<VoteMessage> votes = envelope.getVotes();
+            buffer = ByteBuffer.allocate(1 + 4 + votes.size() * VOTE_BYTES)
+                    .put(KIND_ENVELOPE)
+                    .putInt(votes.size());
+            votes.forEach(vote -> write(buffer, vote));
+        } else {
+            return fallback.toMessage(object, messageProperties);
+        }
+
+        messageProperties.setContentType(CONTENT_TYPE);
+        messageProperties.setContentLength(buffer.capacity());
+        messageProperties.setHeader(HEADER_FORMAT_VERSION, FORMAT_VERSION);
+        return new Message(buffer.array(), messageProperties);
+    }
+
+    @Override
+    public Object fromMessage(Message message) {
+        MessageProperties props = message.getMessageProperties();
+        if (!CONTENT_TYPE.equals(props.getContentType())) return fallback.fromMessage(message);
+
+        Object version = props.getHeader(HEADER_FORMAT_VERSION);
+        if (!(version instanceof Number number) || number.intValue() != FORMAT_VERSION) {
+            throw new MessageConversionException("Unsupported vote format version: " + version);
+        }
+
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(message.getBody());
+            byte kind = buffer.get();
+            if (kind == KIND_SINGLE) return read(buffer);
+            if (kind != KIND_ENVELOPE) throw new MessageConversionException("Unknown vote message kind: " + kind);
+
+            int count = buffer.getInt();
+            if (count < 0 || count > buffer.remaining() / VOTE_BYTES) {
+                throw new MessageConversionException("Invalid vote count: " + count);
+            }
+            List<VoteMessage> votes = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                votes.add(read(buffer));
+            }
+            return new VoteBatchMessage(votes);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new MessageConversionException("Malformed vote message", e);
+        }
+    }
+
+    static void write(ByteBuffer buffer, VoteMessage vote) {
+        buffer.putLong(vote.getSessionId())
+                .putLong(vote.getCpf())
+                .put((byte) vote.getVote().getCode())
+                .putLong(vote.getAcceptedAt() != null ? vote.getAcceptedAt() : NO_TIMESTAMP);
+    }
+
+    static VoteMessage read(ByteBuffer buffer) {
+        long sessionId = buffer.getLong();
+        long cpf = buffer.getLong();
+        VoteType vote = VoteType.fromCode(buffer.get());
+        long acceptedAt = buffer.getLong();
+        return new VoteMessage(sessionId, cpf, vote, acceptedAt == NO_TIMESTAMP ? null : acceptedAt);
+    }
+}
@@ -1,27 +1,41 @@
 package com.test.voting.messaging;
 
 import com.rabbitmq.client.Channel;
+import com.test.voting.dto.BatchInsertResult;
+import com.test.voting.dto.VoteBatchMessage;
 import com.test.voting.dto.VoteMessage;
 import com.test.voting.repository.VoteBatchInserter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class VoteConsumer {
 
+    static final String BISECTION_DEPTH_METRIC = "votes.ingest.bisection.depth";
+    static final String POISON_METRIC = "votes.ingest.poison";
+
     private final VoteRoutingPublisher routingPublisher;
     private final MessageConverter jsonMessageConverter;
     private final VoteBatchInserter voteBatchInserter;
+    private final IngestTuner ingestTuner;
+    private final MeterRegistry meterRegistry;
 
     @RabbitListener(
             queues = RabbitNames.QUEUE,
@@ -32,22 +46,120 @@ public class VoteConsumer {
         long lastTag = messages.getLast()
                 .getMessageProperties().getDeliveryTag();
 
-        List<VoteMessage> batchMessages = new ArrayList<>(messages.size());
+        List<Entry> entries = new ArrayList<>(messages.size());
         for (Message m : messages) {
-            batchMessages.add((VoteMessage) jsonMessageConverter.fromMessage(m));
+            Object payload;
+            try {
+                payload = jsonMessageConverter.fromMessage(m);
+            } catch (Exception ex) {
+                log.error("Undecodable vote delivery {}, routing to DLQ: {}",
+                        m.getMessageProperties().getDeliveryTag(), ex.getMessage());
+                meterRegistry.counter(POISON_METRIC).increment();
+                routingPublisher.routeToDlq(m, ex);
+                continue;
+            }
+            if (payload instanceof VoteBatchMessage envelope) {
+                envelope.getVotes().forEach(vote -> entries.add(new Entry(m, vote, true)));
+            } else {
+                entries.add(new Entry(m, (VoteMessage) payload, false));
+            }
+        }
+        if (!entries.isEmpty()) {
+            store(entries);
         }
+        channel.basicAck(lastTag, true);
+    }
+
+    private void store(List<Entry> entries) {
+        List<VoteMessage> batchMessages = votes(entries);
 
         log.debug("Consuming votes - Session: {}", batchMessages.getFirst().getSessionId());
 
         try {
-            voteBatchInserter.insertBatch(batchMessages);
-            channel.basicAck(lastTag, true);
+            BatchInsertResult result = voteBatchInserter.insertBatch(batchMessages);
+            ingestTuner.recordBatch(batchMessages.size(), lagMillis(batchMessages));
+            log.debug("Batch stored - inserted: {}, duplicates: {}", result.inserted(), result.duplicates());
         } catch (Exception ex) {
-            log.error("Batch failed ({} votes), routing to retry: {}", messages.size(), ex.getMessage());
-            channel.basicAck(lastTag, true);
-            for (Message m : messages) {
-                routingPublisher.routeRetryOrDlq(m, ex);
+            if (isTransient(ex)) {
+                log.error("Batch failed ({} votes), routing to retry: {}", batchMessages.size(), ex.getMessage());
+                routeAll(entries, ex);
+                return;
+            }
+            log.warn("Batch failed ({} votes), bisecting: {}", batchMessages.size(), ex.getMessage());
+            List<Failure> failures = new ArrayList<>();
+            int depth = 0;
+            if (entries.size() == 1) {
+                failures.add(new Failure(entries.getFirst(), ex));
+            } else {
+                depth = bisect(entries, 1, failures);
+            }
+            meterRegistry.summary(BISECTION_DEPTH_METRIC).record(depth);
+            meterRegistry.counter(POISON_METRIC).increment(failures.size());
+            ingestTuner.recordBatch(entries.size() - failures.size(), lagMillis(batchMessages));
+            failures.forEach(failure -> route(failure.entry(), failure.cause()));
+        }
+    }
+
+    private int bisect(List<Entry> entries, int depth, List<Failure> failures) {
+        int mid = entries.size() / 2;
+        int deepest = depth;
+        for (List<Entry> half : List.of(entries.subList(0, mid), entries.subList(mid, entries.size()))) {
+            if (half.isEmpty()) continue;
+            try {
+                voteBatchInserter.insertBatch(votes(half));
+            } catch (Exception ex) {
+                if (half.size() == 1 || isTransient(ex)) {
+                    half.forEach(entry -> failures.add(new Failure(entry, ex)));
+                } else {
+                    deepest = Math.max(deepest, bisect(half, depth + 1, failures));
+                }
+            }
+        }
+        return deepest;
+    }
+
+    private void routeAll(List<Entry> entries, Exception ex) {
+        Map<Message, List<VoteMessage>> envelopes = new IdentityHashMap<>();
+        for (Entry entry : entries) {
+            if (entry.fromEnvelope()) {
+                envelopes.computeIfAbsent(entry.source(), m -> new ArrayList<>()).add(entry.vote());
+            } else {
+                routingPublisher.routeRetryOrDlq(entry.source(), ex);
             }
         }
+        envelopes.forEach((envelope, votes) -> routingPublisher.routeRetryOrDlq(envelope, votes, ex));
+    }
+
+    private void route(Entry entry, Exception ex) {
+        if (entry.fromEnvelope()) {
+            routingPublisher.routeRetryOrDlq(entry.source(), List.of(entry.vote()), ex);
+        } else {
+            routingPublisher.routeRetryOrDlq(entry.source(), ex);
+        }
+    }
+
+    private static boolean isTransient(Exception ex) {
+        return ex instanceof TransientDataAccessException
+                || ex instanceof RecoverableDataAccessException
+                || ex instanceof DataAccessResourceFailureException
+                || ex instanceof CannotCreateTransactionException;
+    }
+
+    private static List<VoteMessage> votes(List<Entry> entries) {
+        return entries.stream().map(Entry::vote).toList();
+    }
+
+    private static long lagMillis(List<VoteMessage> votes) {
+        long oldest = Long.MAX_VALUE;
+        for (VoteMessage vote : votes) {
+            if (vote.getAcceptedAt() != null) oldest = Math.min(oldest, vote.getAcceptedAt());
+        }
+        return oldest == Long.MAX_VALUE ? 0 : Math.max(System.currentTimeMillis() - oldest, 0);
+    }
+
+    private record Entry(Message source, VoteMessage vote, boolean fromEnvelope) {
+    }
+
+    private record Failure(Entry entry, Exception cause) {
     }
 }
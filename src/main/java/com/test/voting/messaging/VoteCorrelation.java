@@ -0,0 +1,27 @@
+package com.test.voting.messaging;
+
+import com.test.voting.dto.VoteMessage;
+import lombok.Getter;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+
+import java.util.List;
+
+@Getter
+public class VoteCorrelation extends CorrelationData {
+
+    private final List<VoteMessage> votes;
+    private final boolean releaseOnFailure;
+
+    public VoteCorrelation(VoteMessage vote) {
+        this(List.of(vote));
+    }
+
+    public VoteCorrelation(List<VoteMessage> votes) {
+        this(votes, true);
+    }
+
+    public VoteCorrelation(List<VoteMessage> votes, boolean releaseOnFailure) {
+        this.votes = votes;
+        this.releaseOnFailure = releaseOnFailure;
+    }
+}
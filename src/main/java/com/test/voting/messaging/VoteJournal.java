@@ -0,0 +1,308 @@
+package com.test.voting.messaging;
+
+import com.test.voting.dto.VoteMessage;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only vote journal over memory-mapped segment files of fixed-size records:
+ * <pre>
+ * crc32:i32 then the vote in the VoteBinaryMessageConverter layout (sessionId cpf vote acceptedAt)
+ * </pre>
+ * Unwritten space is zeros, which never pass the CRC, so recovery resumes at the first failing record of
+ * the newest segment and a write torn by a crash is dropped there.
+ */
+@Slf4j
+public class VoteJournal implements Closeable {
+
+    static final int RECORD_BYTES = 4 + VoteBinaryMessageConverter.VOTE_BYTES;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".spool";
+    private static final String CHECKPOINT = "checkpoint";
+    private static final byte[] EMPTY_RECORD = new byte[RECORD_BYTES];
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final FileChannel checkpoint;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition synced = lock.newCondition();
+    private final Condition appended = lock.newCondition();
+
+    private volatile long writeIndex;
+    private volatile long syncedIndex;
+    private volatile long readIndex;
+    private volatile long oldestSegment;
+    private volatile long writeSegmentNo;
+    private MappedByteBuffer writeSegment;
+    private long readSegmentNo = -1;
+    private MappedByteBuffer readSegment;
+
+    private VoteJournal(Path directory, int segmentBytes) throws IOException {
+        this.directory = directory;
+        this.recordsPerSegment = segmentBytes / RECORD_BYTES;
+        if (recordsPerSegment < 1) {
+            throw new IllegalArgumentException("Segment must hold at least one record: " + segmentBytes);
+        }
+        Files.createDirectories(directory);
+        this.checkpoint = FileChannel.open(directory.resolve(CHECKPOINT),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        recover();
+    }
+
+    public static VoteJournal open(Path directory, int segmentBytes) throws IOException {
+        return new VoteJournal(directory, segmentBytes);
+    }
+
+    private void recover() throws IOException {
+        List<Long> segments = segments();
+        long checkpointed = readCheckpoint();
+        if (segments.isEmpty()) {
+            writeIndex = Math.max(checkpointed, 0);
+            readIndex = writeIndex;
+        } else {
+            long newest = segments.getLast();
+            MappedByteBuffer tail = map(newest);
+            int slot = 0;
+            while (slot < recordsPerSegment && decode(tail, slot) != null) {
+                slot++;
+            }
+            // Stale records past a torn one must not be picked up by the next recovery.
+            for (int stale = slot; stale < recordsPerSegment; stale++) {
+                tail.put(stale * RECORD_BYTES, EMPTY_RECORD);
+            }
+            tail.force();
+            writeIndex = newest * recordsPerSegment + slot;
+            long oldest = segments.getFirst() * recordsPerSegment;
+            readIndex = Math.clamp(checkpointed, oldest, writeIndex);
+        }
+        syncedIndex = writeIndex;
+        oldestSegment = segments.isEmpty() ? writeIndex / recordsPerSegment : segments.getFirst();
+        writeSegmentNo = writeIndex / recordsPerSegment;
+        writeSegment = map(writeSegmentNo);
+        deleteConsumedSegments();
+    }
+
+    public long append(VoteMessage vote) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+        record.position(4);
+        VoteBinaryMessageConverter.write(record, vote);
+        record.putInt(0, crc(record));
+
+        lock.lock();
+        try {
+            if (writeIndex / recordsPerSegment != writeSegmentNo) {
+                roll();
+            }
+            writeSegment.put(slot(writeIndex) * RECORD_BYTES, record.array());
+            appended.signal();
+            return writeIndex++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void roll() throws IOException {
+        writeSegment.force();
+        markSynced(writeIndex);
+        writeSegmentNo = writeIndex / recordsPerSegment;
+        writeSegment = map(writeSegmentNo);
+    }
+
+    public void sync() {
+        long target;
+        MappedByteBuffer segment;
+        lock.lock();
+        try {
+            target = writeIndex;
+            segment = writeSegment;
+        } finally {
+            lock.unlock();
+        }
+        if (target <= syncedIndex) return;
+
+        segment.force();
+        lock.lock();
+        try {
+            markSynced(target);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void markSynced(long target) {
+        if (target > syncedIndex) {
+            syncedIndex = target;
+            synced.signalAll();
+        }
+    }
+
+    public boolean awaitSynced(long index, Duration timeout) throws InterruptedException {
+        long remaining = timeout.toNanos();
+        lock.lock();
+        try {
+            while (syncedIndex <= index) {
+                if (remaining <= 0) return false;
+                remaining = synced.awaitNanos(remaining);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean awaitUnsynced(Duration timeout) throws InterruptedException {
+        long remaining = timeout.toNanos();
+        lock.lock();
+        try {
+            while (writeIndex <= syncedIndex) {
+                if (remaining <= 0) return false;
+                remaining = appended.awaitNanos(remaining);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean awaitReadable(Duration timeout) throws InterruptedException {
+        long remaining = timeout.toNanos();
+        lock.lock();
+        try {
+            while (syncedIndex <= readIndex) {
+                if (remaining <= 0) return false;
+                remaining = synced.awaitNanos(remaining);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Batch read(int max) throws IOException {
+        long end = Math.min(syncedIndex, readIndex + max);
+        List<VoteMessage> votes = new ArrayList<>((int) (end - readIndex));
+        for (long index = readIndex; index < end; index++) {
+            long segmentNo = index / recordsPerSegment;
+            if (segmentNo != readSegmentNo) {
+                readSegment = map(segmentNo);
+                readSegmentNo = segmentNo;
+            }
+            VoteMessage vote = decode(readSegment, slot(index));
+            if (vote == null) {
+                log.error("Skipping corrupt vote journal record {} in {}", index, directory);
+            } else {
+                votes.add(vote);
+            }
+        }
+        return new Batch(votes, readIndex, end);
+    }
+
+    public void commit(Batch batch) throws IOException {
+        readIndex = batch.next();
+        ByteBuffer state = ByteBuffer.allocate(16).putLong(batch.next()).putLong(~batch.next()).flip();
+        checkpoint.write(state, 0);
+        checkpoint.force(false);
+        deleteConsumedSegments();
+    }
+
+    public long pending() {
+        return writeIndex - readIndex;
+    }
+
+    public long diskBytes() {
+        return (writeSegmentNo - oldestSegment + 1) * (long) recordsPerSegment * RECORD_BYTES;
+    }
+
+    @Override
+    public void close() throws IOException {
+        sync();
+        checkpoint.close();
+    }
+
+    private void deleteConsumedSegments() throws IOException {
+        long readSegmentFloor = Math.min(readIndex / recordsPerSegment, writeSegmentNo);
+        while (oldestSegment < readSegmentFloor) {
+            if (readSegmentNo == oldestSegment) {
+                readSegment = null;
+                readSegmentNo = -1;
+            }
+            Files.deleteIfExists(segmentPath(oldestSegment));
+            oldestSegment++;
+        }
+    }
+
+    private long readCheckpoint() throws IOException {
+        ByteBuffer state = ByteBuffer.allocate(16);
+        while (state.hasRemaining() && checkpoint.read(state, state.position()) > 0) {
+            // keep reading until the 16 bytes are in or the file ends
+        }
+        if (state.hasRemaining()) return -1;
+        long index = state.getLong(0);
+        // A torn checkpoint falls back to the oldest segment: resending is safe, skipping is not.
+        return state.getLong(8) == ~index ? index : -1;
+    }
+
+    private VoteMessage decode(MappedByteBuffer segment, int slot) {
+        ByteBuffer record = segment.slice(slot * RECORD_BYTES, RECORD_BYTES);
+        if (record.getInt(0) != crc(record)) return null;
+        try {
+            return VoteBinaryMessageConverter.read(record.position(4));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static int crc(ByteBuffer record) {
+        CRC32 crc = new CRC32();
+        crc.update(record.slice(4, VoteBinaryMessageConverter.VOTE_BYTES));
+        return (int) crc.getValue();
+    }
+
+    private int slot(long index) {
+        return (int) (index % recordsPerSegment);
+    }
+
+    private MappedByteBuffer map(long segmentNo) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentPath(segmentNo),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) recordsPerSegment * RECORD_BYTES);
+        }
+    }
+
+    private Path segmentPath(long segmentNo) {
+        return directory.resolve(SEGMENT_PREFIX + "%020d".formatted(segmentNo) + SEGMENT_SUFFIX);
+    }
+
+    private List<Long> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                            name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    public record Batch(List<VoteMessage> votes, long from, long next) {
+        public boolean isEmpty() {
+            return next == from;
+        }
+    }
+}
@@ -1,19 +1,61 @@
 package com.test.voting.messaging;
 
+import com.test.voting.config.VotePublishProperties;
 import com.test.voting.dto.VoteMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class VoteProducer {
 
     private final VoteRoutingPublisher routingPublisher;
+    private final VoteBatcher voteBatcher;
+    private final VoteSpool voteSpool;
+    private final VotePublishProperties publishProperties;
 
     public void sendVote(VoteMessage message) {
         log.debug("Sending vote - Session: {}, CPF: {}", message.getSessionId(), message.getCpf());
-        routingPublisher.publishToMain(message);
+        if (voteSpool.hasBacklog()) {
+            voteSpool.spool(List.of(message));
+            return;
+        }
+        try {
+            if (publishProperties.batching().enabled()) {
+                voteBatcher.submit(message);
+            } else {
+                routingPublisher.publishToMain(message);
+            }
+        } catch (AmqpException ex) {
+            spoolOrRethrow(List.of(message), ex);
+        }
+    }
+
+    public void sendVotes(List<VoteMessage> messages) {
+        log.debug("Sending {} votes", messages.size());
+        if (voteSpool.hasBacklog()) {
+            voteSpool.spool(messages);
+            return;
+        }
+        try {
+            if (publishProperties.batching().enabled()) {
+                routingPublisher.publishEnvelopesToMain(messages);
+            } else {
+                routingPublisher.publishAllToMain(messages);
+            }
+        } catch (AmqpException ex) {
+            spoolOrRethrow(messages, ex);
+        }
+    }
+
+    private void spoolOrRethrow(List<VoteMessage> messages, AmqpException ex) {
+        if (!voteSpool.isEnabled()) throw ex;
+        log.warn("RabbitMQ publish failed, spooling {} vote(s) locally: {}", messages.size(), ex.getMessage());
+        voteSpool.spool(messages);
     }
 }
@@ -1,46 +1,226 @@
 package com.test.voting.messaging;
 
+import com.test.voting.cache.LiveVoteCounter;
+import com.test.voting.cache.VoteValidationCache;
+import com.test.voting.config.VotePublishProperties;
+import com.test.voting.config.VoteRetryProperties;
+import com.test.voting.config.VoteShardProperties;
+import com.test.voting.dto.VoteBatchMessage;
 import com.test.voting.dto.VoteMessage;
+import com.test.voting.repository.DatabaseHealthProbe;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
 import org.springframework.amqp.core.Message;
 import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class VoteRoutingPublisher {
 
-    private static final int MAX_RETRIES = 3;
+    static final String CONFIRM_METRIC = "votes.publish.confirms";
+    static final String RETRY_METRIC = "votes.retry.routed";
+
     private final RabbitTemplate rabbitTemplate;
+    private final VoteValidationCache voteValidationCache;
+    private final LiveVoteCounter liveVoteCounter;
+    private final MeterRegistry meterRegistry;
+    private final VotePublishProperties publishProperties;
+    private final VoteShardProperties shardProperties;
+    private final VoteRetryProperties retryProperties;
+    private final DatabaseHealthProbe databaseHealthProbe;
 
     public void publishToMain(VoteMessage voteMessage) {
         log.debug("Publishing to main queue - Session: {}, CPF: {}",
                 voteMessage.getSessionId(), voteMessage.getCpf());
-        rabbitTemplate.convertAndSend(RabbitNames.EXCHANGE, RabbitNames.RK_CREATE, voteMessage);
+        awaitConfirms(List.of(send(rabbitTemplate, voteMessage)));
+    }
+
+    public void publishAllToMain(List<VoteMessage> voteMessages) {
+        log.debug("Publishing {} votes to main queue", voteMessages.size());
+        List<VoteCorrelation> correlations = rabbitTemplate.invoke(operations ->
+                voteMessages.stream().map(voteMessage -> send(operations, voteMessage)).toList());
+        awaitConfirms(correlations);
+    }
+
+    public void publishEnvelopesToMain(List<VoteMessage> voteMessages) {
+        int maxVotes = publishProperties.batching().maxVotes();
+        log.debug("Publishing {} votes to main queue in envelopes of up to {}", voteMessages.size(), maxVotes);
+        List<VoteCorrelation> correlations = rabbitTemplate.invoke(operations -> {
+            List<VoteCorrelation> sent = new ArrayList<>();
+            for (List<VoteMessage> shardVotes : groupByRoutingKey(voteMessages).values()) {
+                for (int from = 0; from < shardVotes.size(); from += maxVotes) {
+                    sent.add(sendEnvelope(operations,
+                            shardVotes.subList(from, Math.min(from + maxVotes, shardVotes.size()))));
+                }
+            }
+            return sent;
+        });
+        awaitConfirms(correlations);
+    }
+
+    private Map<String, List<VoteMessage>> groupByRoutingKey(List<VoteMessage> voteMessages) {
+        Map<String, List<VoteMessage>> byRoutingKey = new LinkedHashMap<>();
+        for (VoteMessage voteMessage : voteMessages) {
+            byRoutingKey.computeIfAbsent(shardProperties.routingKey(voteMessage.getSessionId()),
+                    key -> new ArrayList<>()).add(voteMessage);
+        }
+        return byRoutingKey;
+    }
+
+    public void publishDurably(List<VoteMessage> voteMessages) {
+        log.debug("Publishing {} spooled votes to main queue", voteMessages.size());
+        List<VoteCorrelation> correlations = rabbitTemplate.invoke(operations ->
+                voteMessages.stream().map(voteMessage -> send(operations, voteMessage, false)).toList());
+        waitForConfirms(correlations);
+    }
+
+    public VoteCorrelation publishEnvelopeToMain(List<VoteMessage> voteMessages) {
+        return sendEnvelope(rabbitTemplate, voteMessages);
+    }
+
+    private VoteCorrelation send(RabbitOperations operations, VoteMessage voteMessage) {
+        return send(operations, voteMessage, true);
+    }
+
+    private VoteCorrelation send(RabbitOperations operations, VoteMessage voteMessage, boolean releaseOnFailure) {
+        VoteCorrelation correlation = new VoteCorrelation(List.of(voteMessage), releaseOnFailure);
+        correlation.getFuture().whenComplete((confirm, ex) -> onConfirm(correlation, confirm, ex));
+        operations.convertAndSend(RabbitNames.EXCHANGE,
+                shardProperties.routingKey(voteMessage.getSessionId()), voteMessage, correlation);
+        return correlation;
+    }
+
+    private VoteCorrelation sendEnvelope(RabbitOperations operations, List<VoteMessage> voteMessages) {
+        List<VoteMessage> votes = List.copyOf(voteMessages);
+        VoteCorrelation correlation = new VoteCorrelation(votes);
+        correlation.getFuture().whenComplete((confirm, ex) -> onConfirm(correlation, confirm, ex));
+        operations.convertAndSend(RabbitNames.EXCHANGE,
+                shardProperties.routingKey(votes.getFirst().getSessionId()), new VoteBatchMessage(votes), correlation);
+        return correlation;
+    }
+
+    void onConfirm(VoteCorrelation correlation, CorrelationData.Confirm confirm, Throwable ex) {
+        String outcome = outcome(correlation, confirm, ex);
+        meterRegistry.counter(CONFIRM_METRIC, "outcome", outcome).increment();
+        if ("ack".equals(outcome)) return;
+
+        List<VoteMessage> votes = correlation.getVotes();
+        VoteMessage first = votes.getFirst();
+        log.error("{} vote(s) not accepted by broker ({}) - Session: {}, CPF: {}, reason: {}",
+                votes.size(), outcome, first.getSessionId(), first.getCpf(), confirm != null ? confirm.reason() : ex);
+
+        if (publishProperties.durability() == VotePublishProperties.Durability.ASYNC && correlation.isReleaseOnFailure()) {
+            votes.forEach(this::revoke);
+        }
+    }
+
+    void revoke(VoteMessage vote) {
+        voteValidationCache.release(vote.getSessionId(), vote.getCpf());
+        liveVoteCounter.decrement(vote.getSessionId(), vote.getVote());
+    }
+
+    private void awaitConfirms(List<VoteCorrelation> correlations) {
+        if (publishProperties.durability() != VotePublishProperties.Durability.CONFIRMED) return;
+        waitForConfirms(correlations);
+    }
+
+    private void waitForConfirms(List<VoteCorrelation> correlations) {
+        long deadline = System.nanoTime() + publishProperties.confirmTimeout().toNanos();
+        for (VoteCorrelation correlation : correlations) {
+            try {
+                CorrelationData.Confirm confirm = correlation.getFuture()
+                        .get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+                if (!"ack".equals(outcome(correlation, confirm, null))) {
+                    throw new AmqpException("Vote rejected by broker: "
+                            + (confirm.reason() != null ? confirm.reason() : "returned unroutable"));
+                }
+            } catch (TimeoutException e) {
+                meterRegistry.counter(CONFIRM_METRIC, "outcome", "timeout").increment();
+                throw new AmqpException("Timed out waiting for broker confirm", e);
+            } catch (ExecutionException e) {
+                throw new AmqpException("Broker confirm failed", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AmqpException("Interrupted waiting for broker confirm", e);
+            }
+        }
+    }
+
+    static String outcome(VoteCorrelation correlation, CorrelationData.Confirm confirm, Throwable ex) {
+        if (ex != null) return "error";
+        if (correlation.getReturned() != null) return "returned";
+        return confirm.ack() ? "ack" : "nack";
     }
 
     public void routeRetryOrDlq(Message message, Exception ex) {
         int retryCount = getRetryCount(message);
-        if (retryCount < MAX_RETRIES) {
+        if (!databaseHealthProbe.isUp()) {
+            park(message, ex);
+        } else if (retryCount < retryProperties.maxRetries()) {
             publishToRetry(message, ex);
         } else {
             publishToDlq(message, ex);
         }
     }
 
+    public void routeRetryOrDlq(Message envelope, List<VoteMessage> votes, Exception ex) {
+        Object retryCount = envelope.getMessageProperties().getHeader(RabbitNames.HEADER_RETRY_COUNT);
+        for (VoteMessage vote : votes) {
+            MessageProperties props = new MessageProperties();
+            if (retryCount != null) {
+                props.setHeader(RabbitNames.HEADER_RETRY_COUNT, retryCount);
+            }
+            routeRetryOrDlq(rabbitTemplate.getMessageConverter().toMessage(vote, props), ex);
+        }
+    }
+
+    public void routeToDlq(Message message, Exception ex) {
+        publishToDlq(message, ex);
+    }
+
     private void publishToRetry(Message message, Exception ex) {
         int retryCount = incrementRetryCount(message);
         addErrorHeaders(message, ex);
-        log.info("Publishing to retry queue - Attempt: {}/{}", retryCount, MAX_RETRIES);
-        rabbitTemplate.send(RabbitNames.EXCHANGE, RabbitNames.RK_RETRY, message);
+        int tier = retryCount - 1;
+        log.info("Publishing to retry queue - Attempt: {}/{}", retryCount, retryProperties.maxRetries());
+        meterRegistry.counter(RETRY_METRIC, "route", "tier-" + tier).increment();
+        rabbitTemplate.send(RabbitNames.EXCHANGE, retryRoutingKey(tier), message);
+    }
+
+    private void park(Message message, Exception ex) {
+        int tier = retryProperties.maxRetries() - 1;
+        addErrorHeaders(message, ex);
+        message.getMessageProperties().setHeader(RabbitNames.HEADER_PARKED, true);
+        log.warn("Database down, parking vote in retry tier {} - Error: {}", tier, ex.getMessage());
+        meterRegistry.counter(RETRY_METRIC, "route", "parked").increment();
+        rabbitTemplate.send(RabbitNames.EXCHANGE, retryRoutingKey(tier), message);
+    }
+
+    private String retryRoutingKey(int tier) {
+        int slot = ThreadLocalRandom.current().nextInt(retryProperties.queuesPerTier());
+        return RabbitNames.retryRoutingKey(tier, slot);
     }
 
     private void publishToDlq(Message message, Exception ex) {
         addErrorHeaders(message, ex);
         log.error("Max retries exceeded, publishing to DLQ - Error: {}", ex.getMessage());
+        meterRegistry.counter(RETRY_METRIC, "route", "dlq").increment();
         rabbitTemplate.send(RabbitNames.EXCHANGE, RabbitNames.RK_DLQ, message);
     }
 
@@ -0,0 +1,42 @@
+package com.test.voting.messaging;
+
+import com.test.voting.config.VoteShardProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.amqp.rabbit.annotation.RabbitListenerConfigurer;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistrar;
+import org.springframework.amqp.rabbit.listener.SimpleRabbitListenerEndpoint;
+import org.springframework.amqp.rabbit.listener.api.ChannelAwareBatchMessageListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+@Component
+@RequiredArgsConstructor
+public class VoteShardListenerConfigurer implements RabbitListenerConfigurer {
+
+    static final String ENDPOINT_ID = "vote-shard-";
+
+    private final VoteShardProperties shardProperties;
+    private final VoteConsumer voteConsumer;
+    private final SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory;
+
+    @Override
+    public void configureRabbitListeners(RabbitListenerEndpointRegistrar registrar) {
+        for (int shard = 0; shard < shardProperties.count(); shard++) {
+            SimpleRabbitListenerEndpoint endpoint = new SimpleRabbitListenerEndpoint();
+            endpoint.setId(ENDPOINT_ID + shard);
+            endpoint.setQueueNames(RabbitNames.shardQueue(shard));
+            endpoint.setConcurrency(String.valueOf(shardProperties.consumersPerShard()));
+            endpoint.setMessageListener((ChannelAwareBatchMessageListener) (messages, channel) -> {
+                try {
+                    voteConsumer.consume(messages, channel);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            registrar.registerEndpoint(endpoint, rabbitListenerContainerFactory);
+        }
+    }
+}
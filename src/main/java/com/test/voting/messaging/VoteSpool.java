@@ -0,0 +1,157 @@
+package com.test.voting.messaging;
+
+import com.test.voting.config.VoteSpoolProperties;
+import com.test.voting.dto.VoteMessage;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class VoteSpool {
+
+    static final String RECORDS_METRIC = "votes.spool.records";
+    static final String BYTES_METRIC = "votes.spool.bytes";
+    static final String LAG_METRIC = "votes.spool.lag";
+    static final String SPOOLED_METRIC = "votes.spool.appended";
+    static final String DRAINED_METRIC = "votes.spool.drained";
+    static final String SLOW_SYNC_METRIC = "votes.spool.sync.slow";
+
+    private static final Duration IDLE_WAIT = Duration.ofMillis(200);
+
+    private final VoteRoutingPublisher routingPublisher;
+    private final MeterRegistry meterRegistry;
+    private final VoteSpoolProperties spoolProperties;
+
+    private VoteJournal journal;
+    private Thread syncer;
+    private Thread drainer;
+    private volatile boolean running;
+    private volatile long oldestAcceptedAt;
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!spoolProperties.enabled()) return;
+
+        journal = VoteJournal.open(Path.of(spoolProperties.directory()), spoolProperties.segmentBytes());
+        if (journal.pending() > 0) {
+            log.warn("Vote spool recovered {} votes not yet forwarded to RabbitMQ", journal.pending());
+        }
+        Gauge.builder(RECORDS_METRIC, journal, VoteJournal::pending).register(meterRegistry);
+        Gauge.builder(BYTES_METRIC, journal, VoteJournal::diskBytes).baseUnit("bytes").register(meterRegistry);
+        Gauge.builder(LAG_METRIC, this, VoteSpool::lagSeconds).baseUnit("seconds").register(meterRegistry);
+
+        running = true;
+        syncer = Thread.ofPlatform().name("vote-spool-sync").daemon().start(this::syncLoop);
+        drainer = Thread.ofPlatform().name("vote-spool-drain").daemon().start(this::drainLoop);
+        log.info("Vote spool ready at {}", spoolProperties.directory());
+    }
+
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        if (journal == null) return;
+        running = false;
+        drainer.interrupt();
+        drainer.join();
+        syncer.join();
+        journal.close();
+    }
+
+    public boolean isEnabled() {
+        return journal != null;
+    }
+
+    public boolean hasBacklog() {
+        return journal != null && journal.pending() > 0;
+    }
+
+    public void spool(List<VoteMessage> votes) {
+        if (journal == null) throw new AmqpException("Vote spool is disabled");
+        try {
+            long last = -1;
+            for (VoteMessage vote : votes) {
+                last = journal.append(vote);
+            }
+            if (!journal.awaitSynced(last, spoolProperties.syncTimeout())) {
+                log.warn("Vote spool fsync slower than {}, accepting {} vote(s) before they are on disk",
+                        spoolProperties.syncTimeout(), votes.size());
+                meterRegistry.counter(SLOW_SYNC_METRIC).increment(votes.size());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to spool votes", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted waiting for vote spool fsync, accepting {} vote(s)", votes.size());
+        }
+        meterRegistry.counter(SPOOLED_METRIC).increment(votes.size());
+    }
+
+    private void syncLoop() {
+        long intervalNanos = spoolProperties.syncInterval().toNanos();
+        while (running) {
+            try {
+                if (!journal.awaitUnsynced(IDLE_WAIT)) continue;
+            } catch (InterruptedException e) {
+                break;
+            }
+            journal.sync();
+            LockSupport.parkNanos(intervalNanos);
+        }
+        journal.sync();
+    }
+
+    private void drainLoop() {
+        while (running) {
+            try {
+                if (!drain()) journal.awaitReadable(IDLE_WAIT);
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception ex) {
+                log.warn("Vote spool drain paused, {} votes waiting: {}", journal.pending(), ex.getMessage());
+                try {
+                    Thread.sleep(spoolProperties.drainBackoff().toMillis());
+                } catch (InterruptedException ie) {
+                    return;
+                }
+            }
+        }
+    }
+
+    boolean drain() throws IOException {
+        VoteJournal.Batch batch = journal.read(spoolProperties.drainBatchSize());
+        if (batch.isEmpty()) {
+            if (journal.pending() == 0) oldestAcceptedAt = 0;
+            return false;
+        }
+        if (!batch.votes().isEmpty()) {
+            Long acceptedAt = batch.votes().getFirst().getAcceptedAt();
+            oldestAcceptedAt = acceptedAt != null ? acceptedAt : 0;
+            routingPublisher.publishDurably(batch.votes());
+        }
+        journal.commit(batch);
+        meterRegistry.counter(DRAINED_METRIC).increment(batch.votes().size());
+        return true;
+    }
+
+    private double lagSeconds() {
+        long oldest = oldestAcceptedAt;
+        return oldest == 0 || journal.pending() == 0 ? 0 : (System.currentTimeMillis() - oldest) / 1000.0;
+    }
+
+    void open(VoteJournal journal) {
+        this.journal = journal;
+    }
+}
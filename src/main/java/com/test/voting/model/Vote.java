@@ -26,7 +26,7 @@ public class Vote implements Serializable {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "vote_seq")
-    @SequenceGenerator(name = "vote_seq", sequenceName = "vote_id_seq", allocationSize = 100)
+    @SequenceGenerator(name = "vote_seq", sequenceName = "vote_id_seq", allocationSize = 1)
     @Column(name = "id_vote", unique = true, nullable = false)
     private Long id;
 
@@ -34,8 +34,8 @@ public class Vote implements Serializable {
     @JoinColumn(name = "session_id", nullable = false)
     private Session session;
 
-    @Column(name= "cd_cpf",nullable = false, length = 11)
-    private String cpf;
+    @Column(name= "cd_cpf",nullable = false)
+    private Long cpf;
 
     @Convert(converter = VoteTypeConverter.class)
     @Column(name = "tp_vote",nullable = false)
@@ -0,0 +1,25 @@
+package com.test.voting.model.enums;
+
+import lombok.Getter;
+
+import java.util.stream.Stream;
+
+public enum VoteAdmission {
+    SESSION_CLOSED(0),
+    ADMITTED(1),
+    ALREADY_VOTED(2);
+
+    @Getter
+    private int code;
+
+    VoteAdmission(int code) {
+        this.code = code;
+    }
+
+    public static VoteAdmission fromCode(long code) {
+        return Stream.of(values())
+                .filter(admission -> admission.getCode() == code)
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown admission code: " + code));
+    }
+}
@@ -12,4 +12,11 @@ public enum VoteType {
     VoteType(int code) {
         this.code = code;
     }
+
+    public static VoteType fromCode(int code) {
+        for (VoteType type : values()) {
+            if (type.code == code) return type;
+        }
+        throw new IllegalArgumentException("Unknown vote code: " + code);
+    }
 }
@@ -0,0 +1,44 @@
+package com.test.voting.repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DatabaseHealthProbe {
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 1;
+
+    private final DataSource dataSource;
+
+    private volatile boolean up = true;
+
+    @Scheduled(fixedDelayString = "${app.votes.retry.probe-interval-ms:1000}")
+    public void probe() {
+        boolean healthy;
+        try (Connection connection = dataSource.getConnection()) {
+            healthy = connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            healthy = false;
+        }
+        if (healthy != up) {
+            if (healthy) {
+                log.info("Database is reachable again, resuming vote retries");
+            } else {
+                log.warn("Database probe failed, parking vote retries");
+            }
+        }
+        up = healthy;
+    }
+
+    public boolean isUp() {
+        return up;
+    }
+}
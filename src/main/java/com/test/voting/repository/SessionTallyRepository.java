@@ -0,0 +1,48 @@
+package com.test.voting.repository;
+
+import com.test.voting.dto.ResultResponse;
+import com.test.voting.dto.TallyDelta;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class SessionTallyRepository {
+
+    private static final String UPSERT_SQL = """
+        INSERT INTO session_tally (session_id, qt_yes, qt_no)
+        VALUES (?, ?, ?)
+        ON CONFLICT (session_id) DO UPDATE
+        SET qt_yes = session_tally.qt_yes + EXCLUDED.qt_yes,
+            qt_no = session_tally.qt_no + EXCLUDED.qt_no
+    """;
+
+    private static final String FIND_SQL = """
+        SELECT qt_yes, qt_no FROM session_tally WHERE session_id = ?
+    """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Deltas arrive sorted by session id, so concurrent consumers lock tally rows in the same order.
+    public void applyDeltas(List<TallyDelta> deltas) {
+        if (deltas.isEmpty()) return;
+
+        jdbcTemplate.batchUpdate(UPSERT_SQL, deltas, deltas.size(), (ps, delta) -> {
+            ps.setLong(1, delta.sessionId());
+            ps.setLong(2, delta.yes());
+            ps.setLong(3, delta.no());
+        });
+    }
+
+    public ResultResponse.VoteCount find(Long sessionId) {
+        return jdbcTemplate.query(FIND_SQL, rs -> {
+            if (!rs.next()) return new ResultResponse.VoteCount(0L, 0L, 0L);
+            long yes = rs.getLong("qt_yes");
+            long no = rs.getLong("qt_no");
+            return new ResultResponse.VoteCount(yes, no, yes + no);
+        }, sessionId);
+    }
+}
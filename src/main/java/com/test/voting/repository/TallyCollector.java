@@ -0,0 +1,25 @@
+package com.test.voting.repository;
+
+import com.test.voting.dto.TallyDelta;
+import com.test.voting.model.enums.VoteType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+class TallyCollector {
+
+    private final Map<Long, long[]> counts = new TreeMap<>();
+
+    void add(long sessionId, int voteCode) {
+        long[] tally = counts.computeIfAbsent(sessionId, id -> new long[2]);
+        tally[voteCode == VoteType.YES.getCode() ? 0 : 1]++;
+    }
+
+    List<TallyDelta> toDeltas() {
+        List<TallyDelta> deltas = new ArrayList<>(counts.size());
+        counts.forEach((sessionId, tally) -> deltas.add(new TallyDelta(sessionId, tally[0], tally[1])));
+        return deltas;
+    }
+}
@@ -1,14 +1,18 @@
 package com.test.voting.repository;
 
+import com.test.voting.config.VoteIngestProperties;
+import com.test.voting.dto.BatchInsertResult;
 import com.test.voting.dto.VoteMessage;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.IncorrectUpdateSemanticsDataAccessException;
 import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Timestamp;
 import java.time.Instant;
 import java.util.List;
@@ -18,6 +22,10 @@ import java.util.List;
 public class VoteBatchInserter {
 
     private final JdbcTemplate jdbcTemplate;
+    private final VoteCopyInserter voteCopyInserter;
+    private final VoteUnnestInserter voteUnnestInserter;
+    private final VoteIngestProperties ingestProperties;
+    private final SessionTallyRepository sessionTallyRepository;
 
     private static final String SQL = """
         INSERT INTO vote (session_id, cd_cpf, tp_vote, dt_created_at)
@@ -26,15 +34,26 @@ public class VoteBatchInserter {
     """;
 
     @Transactional
-    public int[] insertBatch(List<VoteMessage> votes) {
+    public BatchInsertResult insertBatch(List<VoteMessage> votes) {
         Timestamp now = Timestamp.from(Instant.now());
 
-        return jdbcTemplate.batchUpdate(SQL, new BatchPreparedStatementSetter() {
+        BatchInsertResult result = switch (ingestProperties.mode()) {
+            case BATCH -> batchUpdate(votes, now);
+            case COPY -> voteCopyInserter.insert(votes, now);
+            case UNNEST -> voteUnnestInserter.insert(votes, now);
+        };
+
+        sessionTallyRepository.applyDeltas(result.tallies());
+        return result;
+    }
+
+    private BatchInsertResult batchUpdate(List<VoteMessage> votes, Timestamp now) {
+        int[] counts = jdbcTemplate.batchUpdate(SQL, new BatchPreparedStatementSetter() {
             @Override
             public void setValues(PreparedStatement ps, int i) throws SQLException {
                 VoteMessage msg = votes.get(i);
                 ps.setLong(1, msg.getSessionId());
-                ps.setString(2, msg.getCpf());
+                ps.setLong(2, msg.getCpf());
                 ps.setInt(3, msg.getVote().getCode());
                 ps.setTimestamp(4, now);
             }
@@ -44,5 +63,18 @@ public class VoteBatchInserter {
                 return votes.size();
             }
         });
+
+        TallyCollector tally = new TallyCollector();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == Statement.SUCCESS_NO_INFO) {
+                throw new IncorrectUpdateSemanticsDataAccessException("Driver returned SUCCESS_NO_INFO for vote "
+                        + i + " of the batch; disable reWriteBatchedInserts or use the COPY/UNNEST ingest mode");
+            }
+            if (counts[i] > 0) {
+                VoteMessage msg = votes.get(i);
+                tally.add(msg.getSessionId(), msg.getVote().getCode());
+            }
+        }
+        return BatchInsertResult.of(votes.size(), tally.toDeltas());
     }
-}
\ No newline at end of file
+}
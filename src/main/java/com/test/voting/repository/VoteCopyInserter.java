@@ -0,0 +1,98 @@
+package com.test.voting.repository;
+
+import com.test.voting.dto.BatchInsertResult;
+import com.test.voting.dto.VoteMessage;
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class VoteCopyInserter {
+
+    private static final byte[] COPY_SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0};
+    private static final short FIELD_COUNT = 3;
+    private static final int ROW_BYTES = 2 + 4 + Long.BYTES + 4 + Long.BYTES + 4 + Integer.BYTES;
+
+    private static final String CREATE_STAGING = """
+        CREATE TEMP TABLE IF NOT EXISTS vote_staging (
+            session_id BIGINT NOT NULL,
+            cd_cpf BIGINT NOT NULL,
+            tp_vote INT NOT NULL
+        ) ON COMMIT DELETE ROWS
+    """;
+
+    private static final String COPY_SQL =
+            "COPY vote_staging (session_id, cd_cpf, tp_vote) FROM STDIN WITH (FORMAT BINARY)";
+
+    private static final String MERGE_SQL = """
+        INSERT INTO vote (session_id, cd_cpf, tp_vote, dt_created_at)
+        SELECT session_id, cd_cpf, tp_vote, ?
+        FROM vote_staging
+        ORDER BY session_id, cd_cpf
+        ON CONFLICT (session_id, cd_cpf) DO NOTHING
+        RETURNING session_id, tp_vote
+    """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Must run inside the caller's transaction: the staging rows are dropped on commit.
+    public BatchInsertResult insert(List<VoteMessage> votes, Timestamp createdAt) {
+        byte[] payload = encode(votes);
+
+        jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(CREATE_STAGING);
+            }
+            try {
+                return connection.unwrap(PGConnection.class).getCopyAPI()
+                        .copyIn(COPY_SQL, new ByteArrayInputStream(payload));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        TallyCollector tally = new TallyCollector();
+        jdbcTemplate.query(MERGE_SQL, rs -> {
+            tally.add(rs.getLong("session_id"), rs.getInt("tp_vote"));
+        }, createdAt);
+        return BatchInsertResult.of(votes.size(), tally.toDeltas());
+    }
+
+    static byte[] encode(List<VoteMessage> votes) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(
+                COPY_SIGNATURE.length + 8 + votes.size() * ROW_BYTES + 2);
+
+        try (DataOutputStream out = new DataOutputStream(buffer)) {
+            out.write(COPY_SIGNATURE);
+            out.writeInt(0); // flags
+            out.writeInt(0); // header extension length
+
+            for (VoteMessage vote : votes) {
+                out.writeShort(FIELD_COUNT);
+                out.writeInt(Long.BYTES);
+                out.writeLong(vote.getSessionId());
+                out.writeInt(Long.BYTES);
+                out.writeLong(vote.getCpf());
+                out.writeInt(Integer.BYTES);
+                out.writeInt(vote.getVote().getCode());
+            }
+
+            out.writeShort(-1);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+}
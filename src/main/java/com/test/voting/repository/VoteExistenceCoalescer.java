@@ -0,0 +1,138 @@
+package com.test.voting.repository;
+
+import com.test.voting.config.VoteDedupProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class VoteExistenceCoalescer {
+
+    private static final String SQL = """
+        SELECT session_id, cd_cpf
+        FROM vote
+        WHERE (session_id, cd_cpf) IN (%s)
+    """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final VoteDedupProperties dedupProperties;
+
+    private final BlockingQueue<Check> pending = new LinkedBlockingQueue<>();
+    private Thread flusher;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        flusher = Thread.ofPlatform().name("vote-dedup").daemon().start(this::run);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        flusher.interrupt();
+    }
+
+    public boolean exists(Long sessionId, long cpf) {
+        Check check = new Check(new VoteKey(sessionId, cpf), new CompletableFuture<>());
+        pending.add(check);
+        try {
+            return check.result().get(dedupProperties.timeout().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new QueryTimeoutException("Timed out waiting for coalesced duplicate check", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new QueryTimeoutException("Interrupted waiting for duplicate check", e);
+        }
+    }
+
+    private void run() {
+        int maxBatch = dedupProperties.maxBatch();
+        long windowNanos = dedupProperties.window().toNanos();
+        List<Check> batch = new ArrayList<>(maxBatch);
+
+        while (running) {
+            try {
+                Check first = pending.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < maxBatch) {
+                    pending.drainTo(batch, maxBatch - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatch || remaining <= 0) break;
+                    Check next = pending.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+                resolve(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    void resolve(List<Check> batch) {
+        try {
+            Set<VoteKey> existing = findExisting(batch.stream().map(Check::key).toList());
+            batch.forEach(check -> check.result().complete(existing.contains(check.key())));
+        } catch (RuntimeException ex) {
+            log.error("Coalesced duplicate check for {} votes failed: {}", batch.size(), ex.getMessage());
+            batch.forEach(check -> check.result().completeExceptionally(ex));
+        }
+    }
+
+    // Padded to a power of two so the driver only prepares a handful of statement shapes.
+    Set<VoteKey> findExisting(List<VoteKey> keys) {
+        List<VoteKey> distinct = new ArrayList<>(new LinkedHashSet<>(keys));
+        int size = Math.max(Integer.highestOneBit(distinct.size() - 1) << 1, 1);
+        VoteKey last = distinct.getLast();
+        while (distinct.size() < size) {
+            distinct.add(last);
+        }
+
+        Object[] args = new Object[distinct.size() * 2];
+        for (int i = 0; i < distinct.size(); i++) {
+            args[2 * i] = distinct.get(i).sessionId();
+            args[2 * i + 1] = distinct.get(i).cpf();
+        }
+        String pairs = String.join(", ", Collections.nCopies(distinct.size(), "(?, ?)"));
+
+        Set<VoteKey> existing = new HashSet<>();
+        jdbcTemplate.query(SQL.formatted(pairs), rs -> {
+            existing.add(new VoteKey(rs.getLong("session_id"), rs.getLong("cd_cpf")));
+        }, args);
+        return existing;
+    }
+
+    public record VoteKey(Long sessionId, long cpf) {
+    }
+
+    record Check(VoteKey key, CompletableFuture<Boolean> result) {
+    }
+}
@@ -0,0 +1,34 @@
+package com.test.voting.repository;
+
+import com.test.voting.config.VotePartitionProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+public class VotePartitionManager {
+
+    private static final String NEWEST_SESSION = "SELECT COALESCE(MAX(id_session), 0) FROM session";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final VotePartitionProperties properties;
+
+    public String ensurePartition(Long sessionId) {
+        return jdbcTemplate.queryForObject("SELECT ensure_vote_partition(?, ?)",
+                String.class, sessionId, properties.sessionsPerPartition());
+    }
+
+    @Scheduled(fixedDelayString = "${app.votes.partition.precreate-interval-ms:60000}")
+    public void precreate() {
+        Long newest = jdbcTemplate.queryForObject(NEWEST_SESSION, Long.class);
+        long block = (newest != null ? newest : 0) / properties.sessionsPerPartition();
+        for (long ahead = 0; ahead <= properties.blocksAhead(); ahead++) {
+            String partition = ensurePartition((block + ahead) * properties.sessionsPerPartition());
+            log.debug("Vote partition {} ready", partition);
+        }
+    }
+}
@@ -10,7 +10,7 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface VoteRepository extends JpaRepository<Vote, Long> {
 
-    boolean existsBySessionIdAndCpf(Long sessionId, String cpf);
+    boolean existsBySessionIdAndCpf(Long sessionId, Long cpf);
 
     @Query(value = """
         SELECT 
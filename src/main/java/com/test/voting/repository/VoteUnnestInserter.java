@@ -0,0 +1,60 @@
+package com.test.voting.repository;
+
+import com.test.voting.dto.BatchInsertResult;
+import com.test.voting.dto.VoteMessage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.Comparator;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class VoteUnnestInserter {
+
+    // Consistent key order across consumers keeps them from locking the unique index in opposite orders.
+    static final Comparator<VoteMessage> KEY_ORDER = Comparator
+            .comparingLong(VoteMessage::getSessionId)
+            .thenComparingLong(VoteMessage::getCpf);
+
+    private static final String SQL = """
+        INSERT INTO vote (session_id, cd_cpf, tp_vote, dt_created_at)
+        SELECT v.session_id, v.cd_cpf, v.tp_vote, ?
+        FROM unnest(?::bigint[], ?::bigint[], ?::int[]) AS v(session_id, cd_cpf, tp_vote)
+        ON CONFLICT (session_id, cd_cpf) DO NOTHING
+        RETURNING session_id, tp_vote
+    """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BatchInsertResult insert(List<VoteMessage> votes, Timestamp createdAt) {
+        List<VoteMessage> sorted = votes.stream().sorted(KEY_ORDER).toList();
+
+        Long[] sessionIds = new Long[sorted.size()];
+        Long[] cpfs = new Long[sorted.size()];
+        Integer[] types = new Integer[sorted.size()];
+        for (int i = 0; i < sorted.size(); i++) {
+            VoteMessage vote = sorted.get(i);
+            sessionIds[i] = vote.getSessionId();
+            cpfs[i] = vote.getCpf();
+            types[i] = vote.getVote().getCode();
+        }
+
+        TallyCollector tally = new TallyCollector();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(SQL);
+            ps.setTimestamp(1, createdAt);
+            ps.setArray(2, connection.createArrayOf("bigint", sessionIds));
+            ps.setArray(3, connection.createArrayOf("bigint", cpfs));
+            ps.setArray(4, connection.createArrayOf("integer", types));
+            return ps;
+        }, rs -> {
+            tally.add(rs.getLong("session_id"), rs.getInt("tp_vote"));
+        });
+
+        return BatchInsertResult.of(votes.size(), tally.toDeltas());
+    }
+}
@@ -1,5 +1,7 @@
 package com.test.voting.scheduler;
 
+import com.test.voting.cache.LiveVoteCounter;
+import com.test.voting.cache.SessionValidationCache;
 import com.test.voting.model.enums.SessionStatus;
 import com.test.voting.exception.ResourceNotFoundException;
 import com.test.voting.model.Session;
@@ -13,12 +15,16 @@ import org.quartz.JobExecutionException;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 @Component
 @Slf4j
 @AllArgsConstructor
 public class CloseSessionJob implements Job {
 
     private final SessionRepository sessionRepository;
+    private final SessionValidationCache sessionValidationCache;
+    private final LiveVoteCounter liveVoteCounter;
 
     private static final String SESSION_ID_KEY = "sessionId";
 
@@ -55,6 +61,8 @@ public class CloseSessionJob implements Job {
 
             session.setStatus(SessionStatus.CLOSE);
             sessionRepository.save(session);
+            sessionValidationCache.put(session);
+            liveVoteCounter.retire(List.of(session.getId()));
 
             log.info("Session {} automatically closed at expiration time.", session.getId());
         } else {
@@ -0,0 +1,77 @@
+package com.test.voting.scheduler;
+
+import com.test.voting.cache.LiveVoteCounter;
+import com.test.voting.cache.SessionValidationCache;
+import com.test.voting.config.SessionExpiryProperties;
+import com.test.voting.model.Session;
+import com.test.voting.model.enums.SessionStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SessionExpirySweeper {
+
+    private static final String TRY_LOCK = "SELECT pg_try_advisory_xact_lock(hashtext('session_expiry'))";
+
+    private static final String CLOSE_DUE = """
+        UPDATE session SET tp_status = ?
+        WHERE id_session IN (
+            SELECT id_session FROM session
+            WHERE tp_status = ? AND dt_expiration_time <= ?
+            ORDER BY dt_expiration_time
+            LIMIT ?
+            FOR UPDATE SKIP LOCKED
+        )
+        RETURNING id_session, dt_expiration_time
+    """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SessionValidationCache sessionValidationCache;
+    private final LiveVoteCounter liveVoteCounter;
+    private final SessionExpiryProperties expiryProperties;
+    private final Clock clock;
+
+    @Scheduled(fixedDelayString = "${app.sessions.expiry.interval-ms:1000}")
+    public void sweep() {
+        int total = 0;
+        int closed;
+        do {
+            Integer batch = transactionTemplate.execute(status -> closeDueBatch());
+            closed = batch != null ? batch : 0;
+            total += closed;
+        } while (closed == expiryProperties.batchSize());
+
+        if (total > 0) {
+            log.info("Closed {} expired session(s)", total);
+        }
+    }
+
+    // Must run inside a transaction: the advisory lock and the cache write-through are tied to its commit.
+    int closeDueBatch() {
+        Boolean locked = jdbcTemplate.queryForObject(TRY_LOCK, Boolean.class);
+        if (!Boolean.TRUE.equals(locked)) return 0;
+
+        List<Session> closed = jdbcTemplate.query(CLOSE_DUE, (rs, rowNum) -> Session.builder()
+                        .id(rs.getLong("id_session"))
+                        .status(SessionStatus.CLOSE)
+                        .expirationTime(rs.getTimestamp("dt_expiration_time").toLocalDateTime())
+                        .build(),
+                SessionStatus.CLOSE.getCode(), SessionStatus.OPEN.getCode(),
+                LocalDateTime.now(clock), expiryProperties.batchSize());
+
+        sessionValidationCache.putAll(closed);
+        liveVoteCounter.retire(closed.stream().map(Session::getId).toList());
+        return closed.size();
+    }
+}
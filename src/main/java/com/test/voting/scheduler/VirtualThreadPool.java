@@ -0,0 +1,91 @@
+package com.test.voting.scheduler;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.quartz.SchedulerConfigException;
+import org.quartz.spi.ThreadPool;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+public class VirtualThreadPool implements ThreadPool {
+
+    @Getter
+    @Setter
+    private int threadCount = 10;
+
+    @Setter
+    private String instanceName = "quartz";
+
+    @Setter
+    private String instanceId;
+
+    private Semaphore permits;
+    private ExecutorService executor;
+
+    @Override
+    public void initialize() throws SchedulerConfigException {
+        if (threadCount <= 0) {
+            throw new SchedulerConfigException("threadCount must be > 0");
+        }
+        permits = new Semaphore(threadCount);
+        executor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name(instanceName + "-vt-", 0).factory());
+    }
+
+    @Override
+    public boolean runInThread(Runnable runnable) {
+        if (runnable == null || executor.isShutdown()) return false;
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        executor.execute(() -> {
+            try {
+                runnable.run();
+            } finally {
+                permits.release();
+            }
+        });
+        return true;
+    }
+
+    @Override
+    public int blockForAvailableThreads() {
+        try {
+            permits.acquire();
+            permits.release();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return Math.max(permits.availablePermits(), 1);
+    }
+
+    @Override
+    public void shutdown(boolean waitForJobsToComplete) {
+        if (executor == null) return;
+        if (!waitForJobsToComplete) {
+            executor.shutdownNow();
+            return;
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                log.warn("Quartz jobs still running after shutdown timeout");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public int getPoolSize() {
+        return threadCount;
+    }
+}
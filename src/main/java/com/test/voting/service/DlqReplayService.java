@@ -0,0 +1,335 @@
+package com.test.voting.service;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.DefaultConsumer;
+import com.rabbitmq.client.Envelope;
+import com.test.voting.config.VoteDlqProperties;
+import com.test.voting.dto.DlqReplayRequest;
+import com.test.voting.dto.DlqReplayStatus;
+import com.test.voting.dto.VoteBatchMessage;
+import com.test.voting.dto.VoteMessage;
+import com.test.voting.messaging.RabbitNames;
+import com.test.voting.repository.VoteBatchInserter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.support.DefaultMessagePropertiesConverter;
+import org.springframework.amqp.rabbit.support.MessagePropertiesConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DlqReplayService {
+
+    static final String REPLAY_METRIC = "votes.dlq.replay";
+
+    private static final String UNKNOWN_ERROR = "unknown";
+    private static final MessagePropertiesConverter PROPERTIES_CONVERTER = new DefaultMessagePropertiesConverter();
+    private static final Duration IDLE_TIMEOUT = Duration.ofSeconds(1);
+    private static final Duration CHUNK_LINGER = Duration.ofMillis(50);
+    private static final Duration KEEP_CONFIRM_TIMEOUT = Duration.ofSeconds(30);
+
+    private final RabbitTemplate rabbitTemplate;
+    private final MessageConverter jsonMessageConverter;
+    private final VoteBatchInserter voteBatchInserter;
+    private final MeterRegistry meterRegistry;
+    private final VoteDlqProperties dlqProperties;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(
+            Thread.ofVirtual().name("dlq-replay").factory());
+    private final AtomicReference<ReplayRun> current = new AtomicReference<>();
+
+    public DlqReplayStatus start(DlqReplayRequest request) {
+        ReplayRun run = new ReplayRun(request);
+        ReplayRun previous = current.get();
+        if ((previous != null && previous.state == DlqReplayStatus.State.RUNNING)
+                || !current.compareAndSet(previous, run)) {
+            throw new IllegalStateException("A DLQ replay is already running");
+        }
+        executor.execute(() -> replay(run));
+        return run.snapshot();
+    }
+
+    public Optional<DlqReplayStatus> status() {
+        return Optional.ofNullable(current.get()).map(ReplayRun::snapshot);
+    }
+
+    public Optional<DlqReplayStatus> cancel() {
+        ReplayRun run = current.get();
+        if (run == null) return Optional.empty();
+        run.cancelled = true;
+        return Optional.of(run.snapshot());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ReplayRun run = current.get();
+        if (run != null) run.cancelled = true;
+        executor.shutdown();
+    }
+
+    void replay(ReplayRun run) {
+        log.info("DLQ replay started - dryRun: {}, maxMessages: {}, rate: {}/s",
+                run.request.dryRun(), run.request.maxMessages(), run.request.ratePerSecond());
+        try {
+            rabbitTemplate.execute(channel -> {
+                replay(channel, run);
+                return null;
+            });
+            run.finish(run.cancelled ? DlqReplayStatus.State.CANCELLED : DlqReplayStatus.State.COMPLETED, null);
+        } catch (Exception ex) {
+            log.error("DLQ replay failed: {}", ex.getMessage(), ex);
+            run.finish(DlqReplayStatus.State.FAILED, ex.getMessage());
+        }
+        DlqReplayStatus status = run.snapshot();
+        log.info("DLQ replay {} - scanned: {}, replayed: {} messages / {} votes, kept: {}, {} msg/s, by error: {}",
+                status.state(), status.scanned(), status.replayedMessages(), status.replayedVotes(),
+                status.kept(), Math.round(status.messagesPerSecond()), status.byErrorType());
+    }
+
+    private void replay(Channel channel, ReplayRun run) throws IOException, InterruptedException {
+        long depth = channel.messageCount(RabbitNames.QUEUE_DLQ);
+        run.target = run.request.maxMessages() > 0 ? Math.min(depth, run.request.maxMessages()) : depth;
+        if (run.target == 0) return;
+
+        boolean dryRun = run.request.dryRun();
+        BlockingQueue<Delivery> deliveries = new LinkedBlockingQueue<>();
+        channel.basicQos(dryRun ? 0 : dlqProperties.batchSize());
+        String consumerTag = channel.basicConsume(RabbitNames.QUEUE_DLQ, false, new DefaultConsumer(channel) {
+            @Override
+            public void handleDelivery(String tag, Envelope envelope, AMQP.BasicProperties props, byte[] body) {
+                deliveries.add(new Delivery(envelope, props, body));
+            }
+        });
+
+        List<Delivery> chunk = new ArrayList<>(dlqProperties.batchSize());
+        try {
+            while (run.scanned.sum() < run.target && !run.cancelled) {
+                int size = (int) Math.min(dlqProperties.batchSize(), run.target - run.scanned.sum());
+                if (!take(deliveries, chunk, size)) break;
+                if (dryRun) {
+                    chunk.forEach(delivery -> classify(delivery, run));
+                    chunk.clear();
+                    logProgress(run);
+                    pace(run);
+                    continue;
+                }
+
+                List<Entry> replayable = new ArrayList<>(chunk.size());
+                List<Delivery> kept = new ArrayList<>();
+                for (Delivery delivery : chunk) {
+                    Entry entry = classify(delivery, run);
+                    if (entry == null) {
+                        kept.add(delivery);
+                    } else {
+                        replayable.add(entry);
+                    }
+                }
+
+                boolean healthy = insert(channel, replayable, run, kept);
+                keep(channel, kept);
+                chunk.clear();
+                logProgress(run);
+                if (!healthy) break;
+                pace(run);
+            }
+        } finally {
+            channel.basicCancel(consumerTag);
+            // Tag 0 with multiple requeues every outstanding delivery in place.
+            channel.basicNack(0, true, true);
+        }
+    }
+
+    private boolean take(BlockingQueue<Delivery> deliveries, List<Delivery> chunk, int size) throws InterruptedException {
+        Delivery first = deliveries.poll(IDLE_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        if (first == null) return false;
+        chunk.add(first);
+        while (chunk.size() < size) {
+            deliveries.drainTo(chunk, size - chunk.size());
+            if (chunk.size() >= size) break;
+            Delivery next = deliveries.poll(CHUNK_LINGER.toMillis(), TimeUnit.MILLISECONDS);
+            if (next == null) break;
+            chunk.add(next);
+        }
+        return true;
+    }
+
+    private void keep(Channel channel, List<Delivery> kept) throws IOException, InterruptedException {
+        if (kept.isEmpty()) return;
+        for (Delivery delivery : kept) {
+            channel.basicPublish("", RabbitNames.QUEUE_DLQ, delivery.props(), delivery.body());
+        }
+        try {
+            channel.waitForConfirmsOrDie(KEEP_CONFIRM_TIMEOUT.toMillis());
+        } catch (TimeoutException e) {
+            throw new IOException("Timed out republishing " + kept.size() + " kept DLQ messages", e);
+        }
+        for (Delivery delivery : kept) {
+            channel.basicAck(delivery.envelope().getDeliveryTag(), false);
+        }
+        meterRegistry.counter(REPLAY_METRIC, "outcome", "kept").increment(kept.size());
+    }
+
+    private Entry classify(Delivery delivery, ReplayRun run) {
+        MessageProperties props = PROPERTIES_CONVERTER.toMessageProperties(
+                delivery.props(), delivery.envelope(), StandardCharsets.UTF_8.name());
+        Message message = new Message(delivery.body(), props);
+        run.scanned.increment();
+
+        Object header = props.getHeader(RabbitNames.HEADER_ERROR_TYPE);
+        String errorType = header != null ? header.toString() : UNKNOWN_ERROR;
+        run.byErrorType.computeIfAbsent(errorType, t -> new LongAdder()).increment();
+
+        if (!run.recoverable.contains(errorType)) return null;
+        try {
+            Object payload = jsonMessageConverter.fromMessage(message);
+            List<VoteMessage> votes = payload instanceof VoteBatchMessage envelope
+                    ? envelope.getVotes()
+                    : List.of((VoteMessage) payload);
+            return new Entry(delivery, votes);
+        } catch (RuntimeException e) {
+            log.warn("Unreadable DLQ message kept - {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private boolean insert(Channel channel, List<Entry> entries, ReplayRun run, List<Delivery> kept) throws IOException {
+        if (entries.isEmpty()) return true;
+        try {
+            voteBatchInserter.insertBatch(entries.stream().flatMap(e -> e.votes().stream()).toList());
+            for (Entry entry : entries) {
+                ack(channel, entry, run);
+            }
+            return true;
+        } catch (Exception ex) {
+            if (isTransient(ex)) {
+                run.error = "Database unavailable: " + ex.getMessage();
+                return false;
+            }
+        }
+        for (Entry entry : entries) {
+            try {
+                voteBatchInserter.insertBatch(entry.votes());
+                ack(channel, entry, run);
+            } catch (Exception ex) {
+                kept.add(entry.delivery());
+                meterRegistry.counter(REPLAY_METRIC, "outcome", "failed").increment();
+            }
+        }
+        return true;
+    }
+
+    private void ack(Channel channel, Entry entry, ReplayRun run) throws IOException {
+        channel.basicAck(entry.delivery().envelope().getDeliveryTag(), false);
+        run.replayedMessages.increment();
+        run.replayedVotes.add(entry.votes().size());
+        meterRegistry.counter(REPLAY_METRIC, "outcome", "replayed").increment();
+    }
+
+    private void pace(ReplayRun run) {
+        int rate = run.request.ratePerSecond();
+        if (rate <= 0) return;
+        long expectedNanos = run.scanned.sum() * 1_000_000_000L / rate;
+        long aheadMillis = (expectedNanos - (System.nanoTime() - run.startNanos)) / 1_000_000;
+        if (aheadMillis <= 0) return;
+        try {
+            Thread.sleep(aheadMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            run.cancelled = true;
+        }
+    }
+
+    private void logProgress(ReplayRun run) {
+        DlqReplayStatus status = run.snapshot();
+        log.info("DLQ replay progress - {}/{} scanned, {} replayed, {} msg/s",
+                status.scanned(), status.target(), status.replayedMessages(), Math.round(status.messagesPerSecond()));
+    }
+
+    private static boolean isTransient(Exception ex) {
+        return ex instanceof TransientDataAccessException
+                || ex instanceof DataAccessResourceFailureException
+                || ex instanceof CannotCreateTransactionException;
+    }
+
+    private record Delivery(Envelope envelope, AMQP.BasicProperties props, byte[] body) {
+    }
+
+    private record Entry(Delivery delivery, List<VoteMessage> votes) {
+    }
+
+    class ReplayRun {
+        final DlqReplayRequest request;
+        final Set<String> recoverable;
+        final Instant startedAt = Instant.now();
+        final long startNanos = System.nanoTime();
+        final LongAdder scanned = new LongAdder();
+        final LongAdder replayedMessages = new LongAdder();
+        final LongAdder replayedVotes = new LongAdder();
+        final Map<String, LongAdder> byErrorType = new ConcurrentHashMap<>();
+        volatile long target;
+        volatile boolean cancelled;
+        volatile DlqReplayStatus.State state = DlqReplayStatus.State.RUNNING;
+        volatile Instant finishedAt;
+        volatile long finishedNanos;
+        volatile String error;
+
+        ReplayRun(DlqReplayRequest request) {
+            this.request = request;
+            this.recoverable = request.errorTypes() == null || request.errorTypes().isEmpty()
+                    ? dlqProperties.recoverableErrorTypes()
+                    : request.errorTypes();
+        }
+
+        void finish(DlqReplayStatus.State finalState, String failure) {
+            finishedNanos = System.nanoTime();
+            finishedAt = Instant.now();
+            if (failure != null) error = failure;
+            state = error != null && finalState == DlqReplayStatus.State.COMPLETED
+                    ? DlqReplayStatus.State.FAILED
+                    : finalState;
+        }
+
+        DlqReplayStatus snapshot() {
+            long end = finishedAt != null ? finishedNanos : System.nanoTime();
+            double seconds = Math.max(end - startNanos, 1) / 1e9;
+            Map<String, Long> errors = new TreeMap<>();
+            byErrorType.forEach((type, count) -> errors.put(type, count.sum()));
+            long scannedCount = scanned.sum();
+            long replayed = replayedMessages.sum();
+            return new DlqReplayStatus(state, request.dryRun(), target, scannedCount, replayed,
+                    replayedVotes.sum(), scannedCount - replayed, errors, scannedCount / seconds,
+                    startedAt, finishedAt, error);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.test.voting.service;
+
+import com.test.voting.dto.ResultResponse;
+import com.test.voting.model.enums.SessionStatus;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Service
+@Slf4j
+public class ResultStreamBroadcaster {
+
+    static final String EVENT_RESULT = "result";
+    static final String EVENT_FINAL = "final";
+
+    private final SessionService sessionService;
+    private final ObjectMapper objectMapper;
+    private final long emitterTimeoutMillis;
+
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final Map<Long, String> lastSnapshot = new ConcurrentHashMap<>();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    public ResultStreamBroadcaster(SessionService sessionService,
+                                   ObjectMapper objectMapper,
+                                   @Value("${app.votes.stream.emitter-timeout-ms:1800000}") long emitterTimeoutMillis) {
+        this.sessionService = sessionService;
+        this.objectMapper = objectMapper;
+        this.emitterTimeoutMillis = emitterTimeoutMillis;
+    }
+
+    public SseEmitter subscribe(Long sessionId) {
+        sessionService.findById(sessionId);
+
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter);
+        subscribers.compute(sessionId, (id, current) -> {
+            Set<Subscriber> set = current != null ? current : ConcurrentHashMap.newKeySet();
+            set.add(subscriber);
+            return set;
+        });
+
+        Runnable remove = () -> subscribers.computeIfPresent(sessionId, (id, current) -> {
+            current.remove(subscriber);
+            return current;
+        });
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+
+        String snapshot = lastSnapshot.get(sessionId);
+        if (snapshot != null) {
+            send(subscriber, new Frame(EVENT_RESULT, snapshot, false));
+        }
+        return emitter;
+    }
+
+    @Scheduled(fixedDelayString = "${app.votes.stream.interval-ms:1000}")
+    public void broadcast() {
+        subscribers.forEach((sessionId, ignored) -> {
+            Set<Subscriber> watching = subscribers.computeIfPresent(sessionId,
+                    (id, current) -> current.isEmpty() ? null : current);
+            if (watching == null) {
+                lastSnapshot.remove(sessionId);
+                return;
+            }
+
+            try {
+                ResultResponse result = sessionService.getResult(sessionId, true);
+                String payload = objectMapper.writeValueAsString(result);
+
+                if (result.sessionStatus() == SessionStatus.CLOSE) {
+                    Set<Subscriber> closing = subscribers.remove(sessionId);
+                    lastSnapshot.remove(sessionId);
+                    if (closing != null) {
+                        closing.forEach(subscriber -> send(subscriber, new Frame(EVENT_FINAL, payload, true)));
+                    }
+                    return;
+                }
+
+                if (payload.equals(lastSnapshot.put(sessionId, payload))) return;
+
+                Frame frame = new Frame(EVENT_RESULT, payload, false);
+                watching.forEach(subscriber -> send(subscriber, frame));
+            } catch (Exception e) {
+                log.error("Failed to compute result stream for session {}: {}", sessionId, e.getMessage());
+            }
+        });
+    }
+
+    int subscriberCount(Long sessionId) {
+        Set<Subscriber> set = subscribers.get(sessionId);
+        return set == null ? 0 : set.size();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        senders.shutdownNow();
+    }
+
+    void send(Subscriber subscriber, Frame frame) {
+        synchronized (subscriber) {
+            if (subscriber.pending != null && subscriber.pending.complete()) return;
+            subscriber.pending = frame;
+            if (subscriber.sending) return;
+            subscriber.sending = true;
+        }
+        senders.execute(() -> drain(subscriber));
+    }
+
+    private void drain(Subscriber subscriber) {
+        while (true) {
+            Frame frame;
+            synchronized (subscriber) {
+                frame = subscriber.pending;
+                subscriber.pending = null;
+                if (frame == null || subscriber.done) {
+                    subscriber.sending = false;
+                    return;
+                }
+                subscriber.done = frame.complete();
+            }
+            SseEmitter emitter = subscriber.emitter;
+            try {
+                emitter.send(SseEmitter.event().name(frame.event()).data(frame.payload(), MediaType.APPLICATION_JSON));
+                if (frame.complete()) emitter.complete();
+            } catch (IOException | IllegalStateException e) {
+                synchronized (subscriber) {
+                    subscriber.done = true;
+                }
+                emitter.completeWithError(e);
+            }
+        }
+    }
+
+    static final class Subscriber {
+        private final SseEmitter emitter;
+        private Frame pending;
+        private boolean sending;
+        private boolean done;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+
+    record Frame(String event, String payload, boolean complete) {
+    }
+}
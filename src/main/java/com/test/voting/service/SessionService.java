@@ -1,14 +1,19 @@
 package com.test.voting.service;
 
+import com.test.voting.cache.LiveVoteCounter;
+import com.test.voting.cache.SessionValidationCache;
+import com.test.voting.dto.ResultReconciliation;
 import com.test.voting.dto.ResultResponse;
 import com.test.voting.dto.SessionRequest;
 import com.test.voting.dto.SessionResponse;
 import com.test.voting.exception.ResourceNotFoundException;
 import com.test.voting.mapper.SessionMapper;
 import com.test.voting.model.Session;
+import com.test.voting.model.enums.SessionStatus;
 import com.test.voting.repository.SessionRepository;
+import com.test.voting.repository.SessionTallyRepository;
+import com.test.voting.repository.VotePartitionManager;
 import com.test.voting.repository.VoteRepository;
-import com.test.voting.scheduler.SessionSchedulerService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -20,9 +25,12 @@ import org.springframework.transaction.annotation.Transactional;
 public class SessionService {
 
     private final SessionRepository sessionRepository;
-    private final VoteRepository voteRepository;
+    private final SessionTallyRepository sessionTallyRepository;
     private final SessionMapper sessionMapper;
-    private final SessionSchedulerService sessionSchedulerService;
+    private final VotePartitionManager votePartitionManager;
+    private final VoteRepository voteRepository;
+    private final LiveVoteCounter liveVoteCounter;
+    private final SessionValidationCache sessionValidationCache;
 
     @Transactional
     public SessionResponse create(SessionRequest request) {
@@ -30,8 +38,9 @@ public class SessionService {
 
         Session session = sessionMapper.toEntity(request);
         session = sessionRepository.save(session);
+        votePartitionManager.ensurePartition(session.getId());
 
-        sessionSchedulerService.scheduleSessionClosure(session);
+        sessionValidationCache.put(session);
         
         log.info("Session created successfully. ID: {}, Status: {}, Expires at: {}",
                 session.getId(), session.getStatus(), session.getExpirationTime());
@@ -41,11 +50,18 @@ public class SessionService {
 
     @Transactional(readOnly = true)
     public ResultResponse getResult(Long sessionId) {
-        log.info("Fetching result for session: {}", sessionId);
+        return getResult(sessionId, false);
+    }
+
+    @Transactional(readOnly = true)
+    public ResultResponse getResult(Long sessionId, boolean live) {
+        log.info("Fetching result for session: {} (live={})", sessionId, live);
 
         Session session = findById(sessionId);
 
-        ResultResponse.VoteCount result = voteRepository.countVotesBySessionId(sessionId);
+        ResultResponse.VoteCount result = live && session.getStatus() == SessionStatus.OPEN
+                ? liveCount(sessionId)
+                : sessionTallyRepository.find(sessionId);
 
         ResultResponse.VoteCount voteCount = new ResultResponse.VoteCount(
                 result.yes(),
@@ -60,9 +76,34 @@ public class SessionService {
         );
     }
 
+    @Transactional(readOnly = true)
+    public ResultReconciliation reconcileResult(Long sessionId) {
+        findById(sessionId);
+
+        ResultResponse.VoteCount live = liveVoteCounter.read(sessionId);
+        ResultResponse.VoteCount tally = sessionTallyRepository.find(sessionId);
+        ResultResponse.VoteCount persisted = voteRepository.countVotesBySessionId(sessionId);
+
+        boolean consistent = live.equals(persisted) && tally.equals(persisted);
+        if (!consistent) {
+            log.warn("Result drift for session {} - live: {}, tally: {}, persisted: {}",
+                    sessionId, live, tally, persisted);
+        }
+        return new ResultReconciliation(sessionId, live, tally, persisted, consistent);
+    }
+
     @Transactional(readOnly = true)
     public Session findById(Long id) {
         return sessionRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Session not found with ID: " + id));
     }
+
+    private ResultResponse.VoteCount liveCount(Long sessionId) {
+        try {
+            return liveVoteCounter.read(sessionId);
+        } catch (Exception e) {
+            log.error("Live counters unavailable for session {}, serving persisted tally: {}", sessionId, e.getMessage());
+            return sessionTallyRepository.find(sessionId);
+        }
+    }
 }
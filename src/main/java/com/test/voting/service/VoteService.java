@@ -1,5 +1,6 @@
 package com.test.voting.service;
 
+import com.test.voting.cache.LiveVoteCounter;
 import com.test.voting.cache.SessionValidationCache;
 import com.test.voting.cache.VoteValidationCache;
 import com.test.voting.dto.SessionCache;
@@ -10,16 +11,23 @@ import com.test.voting.dto.VoteRequest;
 import com.test.voting.dto.VoteResponse;
 import com.test.voting.model.enums.VoteStatus;
 import com.test.voting.model.enums.VoteType;
+import com.test.voting.exception.ResourceNotFoundException;
 import com.test.voting.facade.CpfValidationFacade;
+import com.test.voting.model.enums.VoteAdmission;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-
-import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
-import static com.test.voting.utils.CpfUtils.formatCpf;
+import static com.test.voting.utils.CpfUtils.parseCpf;
 
 @Service
 @RequiredArgsConstructor
@@ -30,6 +38,8 @@ public class VoteService {
     private final SessionValidationCache sessionValidationCache;
     private final CpfValidationFacade cpfValidationFacade;
     private final VoteValidationCache voteValidationCache;
+    private final LiveVoteCounter liveVoteCounter;
+    private final Validator validator;
 
     public VoteResponse registerVote(VoteRequest request) {
         log.debug("vote - session={}, cpf={}", request.sessionId(), request.cpf());
@@ -39,49 +49,124 @@ public class VoteService {
             return VoteResponse.invalidSession();
         }
 
-        String cpf = formatCpf(request.cpf());
+        long cpf = parseCpf(request.cpf());
 
         VoteResponse validationResult = validateCpf(cpf);
         if (validationResult != null) {
             return validationResult;
         }
 
-        VoteResponse duplicateVoteCheck = duplicateVoteCheck(request.sessionId(), cpf, sessionCache);
-        if (duplicateVoteCheck != null) {
-            return duplicateVoteCheck;
+        return switch (voteValidationCache.admit(request.sessionId(), cpf)) {
+            case SESSION_CLOSED -> VoteResponse.invalidSession();
+            case ALREADY_VOTED -> VoteResponse.alreadyVoted();
+            case ADMITTED -> publishVote(request.sessionId(), cpf, request.vote());
+        };
+    }
+
+    public List<VoteResponse> registerVotes(List<VoteRequest> requests) {
+        log.debug("batch vote - {} votes", requests.size());
+
+        VoteResponse[] responses = new VoteResponse[requests.size()];
+        Map<Long, Optional<VoteResponse>> sessionRejections = new HashMap<>();
+        Instant now = Instant.now();
+
+        List<Integer> candidateIndexes = new ArrayList<>();
+        List<VoteMessage> candidates = new ArrayList<>();
+
+        for (int i = 0; i < requests.size(); i++) {
+            VoteRequest request = requests.get(i);
+
+            VoteResponse rejection = validateRequest(request);
+            if (rejection == null) {
+                rejection = sessionRejections
+                        .computeIfAbsent(request.sessionId(), id -> checkSession(id, now))
+                        .orElse(null);
+            }
+            long cpf = parseCpf(request.cpf());
+            if (rejection == null) {
+                rejection = validateCpf(cpf);
+            }
+            if (rejection != null) {
+                responses[i] = rejection;
+                continue;
+            }
+
+            candidateIndexes.add(i);
+            candidates.add(VoteMessage.builder()
+                    .sessionId(request.sessionId())
+                    .cpf(cpf)
+                    .vote(request.vote())
+                    .acceptedAt(now.toEpochMilli())
+                    .build());
+        }
+
+        List<VoteAdmission> admissions = candidates.isEmpty()
+                ? List.of()
+                : voteValidationCache.admitAll(candidates);
+
+        List<VoteMessage> accepted = new ArrayList<>(candidates.size());
+        for (int i = 0; i < admissions.size(); i++) {
+            int index = candidateIndexes.get(i);
+            switch (admissions.get(i)) {
+                case SESSION_CLOSED -> responses[index] = VoteResponse.invalidSession();
+                case ALREADY_VOTED -> responses[index] = VoteResponse.alreadyVoted();
+                case ADMITTED -> {
+                    responses[index] = VoteResponse.ok();
+                    accepted.add(candidates.get(i));
+                }
+            }
         }
 
-        return publishVote(request.sessionId(), cpf, request.vote());
+        publishVotes(accepted);
+        return List.of(responses);
     }
 
-    private VoteResponse validateCpf(String cpf) {
-        CpfValidationResponse response = cpfValidationFacade.validateCpf(cpf);
-        if (response == null) return VoteResponse.invalidCpf();
-        if (response.status() == VoteStatus.UNABLE_TO_VOTE) return VoteResponse.unableToVote();
-        return null; // válido
+    private VoteResponse validateRequest(VoteRequest request) {
+        return validator.validate(request).stream()
+                .findFirst()
+                .map(ConstraintViolation::getMessage)
+                .map(VoteResponse::invalidRequest)
+                .orElse(null);
+    }
+
+    private Optional<VoteResponse> checkSession(Long sessionId, Instant now) {
+        try {
+            return sessionValidationCache.get(sessionId).closedOrExpired(now)
+                    ? Optional.of(VoteResponse.invalidSession())
+                    : Optional.empty();
+        } catch (ResourceNotFoundException e) {
+            return Optional.of(VoteResponse.sessionNotFound(e.getMessage()));
+        }
     }
 
-    private VoteResponse duplicateVoteCheck(Long sessionId, String cpf, SessionCache sessionCache) {
-        Duration ttl = calculateTtl(sessionCache);
-        if (!voteValidationCache.reserve(sessionId, cpf, ttl)) {
-            return VoteResponse.alreadyVoted();
+    private void publishVotes(List<VoteMessage> messages) {
+        if (messages.isEmpty()) return;
+        try {
+            voteProducer.sendVotes(messages);
+        } catch (Exception ex) {
+            messages.forEach(m -> voteValidationCache.release(m.getSessionId(), m.getCpf()));
+            throw ex;
         }
-        return null;
+        messages.forEach(m -> liveVoteCounter.increment(m.getSessionId(), m.getVote()));
     }
 
-    private Duration calculateTtl(SessionCache sessionCache) {
-        Duration ttl = Duration.between(Instant.now(), sessionCache.expiresAt()).plusHours(1);
-        return ttl.isNegative() || ttl.isZero() ? Duration.ofHours(1) : ttl;
+    private VoteResponse validateCpf(long cpf) {
+        CpfValidationResponse response = cpfValidationFacade.validateCpf(cpf);
+        if (response == null) return VoteResponse.invalidCpf();
+        if (response.status() == VoteStatus.UNABLE_TO_VOTE) return VoteResponse.unableToVote();
+        return null; // válido
     }
 
-    private VoteResponse publishVote(Long sessionId, String cpf, VoteType vote) {
+    private VoteResponse publishVote(Long sessionId, long cpf, VoteType vote) {
         VoteMessage message = VoteMessage.builder()
                 .sessionId(sessionId)
                 .cpf(cpf)
                 .vote(vote)
+                .acceptedAt(System.currentTimeMillis())
                 .build();
         try {
             voteProducer.sendVote(message);
+            liveVoteCounter.increment(sessionId, vote);
             return VoteResponse.ok();
         } catch (Exception ex) {
             voteValidationCache.release(sessionId, cpf);
@@ -5,10 +5,28 @@ import lombok.experimental.UtilityClass;
 @UtilityClass
 public class CpfUtils {
 
+    public static final long INVALID_CPF = -1L;
+    private static final int CPF_DIGITS = 11;
+
     public static String formatCpf(String cpf) {
         if (cpf == null) {
             return null;
         }
         return cpf.replaceAll("[^0-9]", "");
     }
+
+    public static long parseCpf(String cpf) {
+        if (cpf == null) {
+            return INVALID_CPF;
+        }
+        long value = 0;
+        int digits = 0;
+        for (int i = 0; i < cpf.length(); i++) {
+            char c = cpf.charAt(i);
+            if (c < '0' || c > '9') continue;
+            if (++digits > CPF_DIGITS) return INVALID_CPF;
+            value = value * 10 + (c - '0');
+        }
+        return digits == CPF_DIGITS ? value : INVALID_CPF;
+    }
 }
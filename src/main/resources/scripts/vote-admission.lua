@@ -0,0 +1,55 @@
+-- Atomically checks the session state and reserves the (session, CPF) slot.
+-- KEYS[1] = session:{sessionId}   hash with 'status' and 'expiresAt' (epoch millis)
+-- KEYS[2] = votes:{sessionId}     hash of CPF buckets, expires as a unit after the session
+-- ARGV[1] = milliseconds the reservations are kept after the session expires
+-- ARGV[2] = CPF as a number
+-- KEYS[3] = optional votes:{sessionId}:claims:{token}, CPF -> slot for the batch request {token}
+-- ARGV[3] = this vote's slot in that batch (only with KEYS[3])
+-- Returns 1 = admitted, 2 = already voted, 0 = session closed/expired, -1 = session not cached
+--
+-- Each CPF lives in field (cpf % 65536) as the 3 big-endian bytes of (cpf / 65536);
+-- an 11-digit CPF divided by 65536 always fits in 21 bits.
+--
+-- A batch whose pipeline failed halfway admits its votes again one by one; the claims hash lets that
+-- retry recognise the reservations it already made instead of answering "already voted" for them.
+local session = redis.call('HMGET', KEYS[1], 'status', 'expiresAt')
+if not session[1] or not session[2] then
+    return -1
+end
+
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+local expiresAt = tonumber(session[2])
+
+if session[1] ~= 'OPEN' or expiresAt < now then
+    return 0
+end
+
+local cpf = tonumber(ARGV[2])
+local bucket = cpf % 65536
+local high = (cpf - bucket) / 65536
+local entry = string.char(math.floor(high / 65536) % 256, math.floor(high / 256) % 256, high % 256)
+
+local packed = redis.call('HGET', KEYS[2], bucket) or ''
+local from = 1
+while true do
+    local at = string.find(packed, entry, from, true)
+    if not at then
+        break
+    end
+    if at % 3 == 1 then
+        if KEYS[3] and redis.call('HGET', KEYS[3], ARGV[2]) == ARGV[3] then
+            return 1
+        end
+        return 2
+    end
+    from = at + 1
+end
+
+redis.call('HSET', KEYS[2], bucket, packed .. entry)
+redis.call('PEXPIREAT', KEYS[2], expiresAt + tonumber(ARGV[1]))
+if KEYS[3] then
+    redis.call('HSET', KEYS[3], ARGV[2], ARGV[3])
+    redis.call('PEXPIRE', KEYS[3], 60000)
+end
+return 1
@@ -0,0 +1,31 @@
+-- Removes a CPF reserved by vote-admission.lua (same bucket layout).
+-- KEYS[1] = votes:{sessionId}
+-- ARGV[1] = CPF as a number
+-- Returns 1 when the CPF was removed, 0 when it was not reserved
+local cpf = tonumber(ARGV[1])
+local bucket = cpf % 65536
+local high = (cpf - bucket) / 65536
+local entry = string.char(math.floor(high / 65536) % 256, math.floor(high / 256) % 256, high % 256)
+
+local packed = redis.call('HGET', KEYS[1], bucket)
+if not packed then
+    return 0
+end
+
+local from = 1
+while true do
+    local at = string.find(packed, entry, from, true)
+    if not at then
+        return 0
+    end
+    if at % 3 == 1 then
+        local rest = string.sub(packed, 1, at - 1) .. string.sub(packed, at + 3)
+        if rest == '' then
+            redis.call('HDEL', KEYS[1], bucket)
+        else
+            redis.call('HSET', KEYS[1], bucket, rest)
+        end
+        return 1
+    end
+    from = at + 1
+end
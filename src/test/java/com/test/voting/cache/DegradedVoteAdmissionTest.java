@@ -0,0 +1,72 @@
+package com.test.voting.cache;
+
+import com.test.voting.config.VoteDedupProperties;
+import com.test.voting.model.enums.VoteAdmission;
+import com.test.voting.repository.VoteExistenceCoalescer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DegradedVoteAdmissionTest {
+
+    private static final Long SESSION_ID = 1L;
+    private static final long CPF = 12345678909L;
+
+    @Mock
+    private VoteExistenceCoalescer voteExistenceCoalescer;
+
+    private DegradedVoteAdmission admission;
+
+    @BeforeEach
+    void setUp() {
+        admission = new DegradedVoteAdmission(voteExistenceCoalescer, new VoteDedupProperties(
+                Duration.ofMillis(5), 512, Duration.ofSeconds(2), Duration.ofHours(1), 1000));
+    }
+
+    @Test
+    void shouldRejectSecondVoteStillInFlightWithoutQuerying() {
+        when(voteExistenceCoalescer.exists(SESSION_ID, CPF)).thenReturn(false);
+
+        assertThat(admission.admit(SESSION_ID, CPF)).isEqualTo(VoteAdmission.ADMITTED);
+        assertThat(admission.admit(SESSION_ID, CPF)).isEqualTo(VoteAdmission.ALREADY_VOTED);
+
+        verify(voteExistenceCoalescer, times(1)).exists(SESSION_ID, CPF);
+    }
+
+    @Test
+    void shouldRejectVoteAlreadyInDatabase() {
+        when(voteExistenceCoalescer.exists(SESSION_ID, CPF)).thenReturn(true);
+
+        assertThat(admission.admit(SESSION_ID, CPF)).isEqualTo(VoteAdmission.ALREADY_VOTED);
+    }
+
+    @Test
+    void shouldForgetVoteOnRelease() {
+        when(voteExistenceCoalescer.exists(SESSION_ID, CPF)).thenReturn(false);
+        admission.admit(SESSION_ID, CPF);
+
+        admission.release(SESSION_ID, CPF);
+
+        assertThat(admission.admit(SESSION_ID, CPF)).isEqualTo(VoteAdmission.ADMITTED);
+    }
+
+    @Test
+    void shouldNotKeepClaimWhenCheckFails() {
+        when(voteExistenceCoalescer.exists(SESSION_ID, CPF))
+                .thenThrow(new QueryTimeoutException("slow"))
+                .thenReturn(false);
+
+        assertThatThrownBy(() -> admission.admit(SESSION_ID, CPF)).isInstanceOf(QueryTimeoutException.class);
+        assertThat(admission.admit(SESSION_ID, CPF)).isEqualTo(VoteAdmission.ADMITTED);
+    }
+}
@@ -0,0 +1,113 @@
+package com.test.voting.cache;
+
+import com.test.voting.dto.ResultResponse;
+import com.test.voting.model.enums.VoteType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LiveVoteCounterTest {
+
+    @Mock
+    private StringRedisTemplate redis;
+    @Mock
+    private HashOperations<String, Object, Object> hashOps;
+
+    @InjectMocks
+    private LiveVoteCounter liveVoteCounter;
+
+    @Test
+    void shouldReadSharedAggregate() {
+        when(redis.opsForHash()).thenReturn(hashOps);
+        when(hashOps.multiGet("live:{1}", List.of("yes", "no"))).thenReturn(List.of("7", "3"));
+
+        ResultResponse.VoteCount result = liveVoteCounter.read(1L);
+
+        assertThat(result).isEqualTo(new ResultResponse.VoteCount(7L, 3L, 10L));
+    }
+
+    @Test
+    void shouldReadMissingAggregateAsZero() {
+        when(redis.opsForHash()).thenReturn(hashOps);
+        when(hashOps.multiGet("live:{1}", List.of("yes", "no"))).thenReturn(Arrays.asList(null, null));
+
+        assertThat(liveVoteCounter.read(1L)).isEqualTo(new ResultResponse.VoteCount(0L, 0L, 0L));
+    }
+
+    @Test
+    void shouldSkipRedisWhenNothingToFlush() {
+        liveVoteCounter.flush();
+
+        verifyNoInteractions(redis);
+    }
+
+    @Test
+    void shouldFlushOnlyOncePerIncrement() {
+        liveVoteCounter.increment(1L, VoteType.YES);
+
+        liveVoteCounter.flush();
+        liveVoteCounter.flush();
+
+        verify(redis, times(1)).executePipelined(any(RedisCallback.class));
+    }
+
+    @Test
+    void shouldCancelOutRevokedVote() {
+        liveVoteCounter.increment(1L, VoteType.YES);
+        liveVoteCounter.decrement(1L, VoteType.YES);
+
+        liveVoteCounter.flush();
+
+        verifyNoInteractions(redis);
+    }
+
+    @Test
+    void shouldFlushIncrementThatRacedIdleEviction() {
+        long idle = System.currentTimeMillis() + Duration.ofMinutes(11).toMillis();
+        // A request thread fetched the counters, then the flusher evicted them before it incremented.
+        LiveVoteCounter.Counters held = liveVoteCounter.countersFor(1L);
+        liveVoteCounter.flush(idle);
+        held.add(VoteType.YES, 1);
+
+        liveVoteCounter.flush(idle + 500);
+        liveVoteCounter.flush(idle + 1_000);
+
+        verify(redis, times(1)).executePipelined(any(RedisCallback.class));
+    }
+
+    @Test
+    void shouldShortenTtlOfClosedSessions() {
+        liveVoteCounter.retire(List.of(1L, 2L));
+        liveVoteCounter.retire(List.of());
+
+        verify(redis, times(1)).executePipelined(any(RedisCallback.class));
+    }
+
+    @Test
+    void shouldKeepDeltasForNextFlushWhenRedisFails() {
+        when(redis.executePipelined(any(RedisCallback.class)))
+                .thenThrow(new RuntimeException("Redis Down"))
+                .thenReturn(List.of());
+        liveVoteCounter.increment(1L, VoteType.NO);
+
+        liveVoteCounter.flush();
+        liveVoteCounter.flush();
+        liveVoteCounter.flush();
+
+        verify(redis, times(2)).executePipelined(any(RedisCallback.class));
+    }
+}
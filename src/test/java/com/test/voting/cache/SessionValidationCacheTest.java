@@ -1,9 +1,10 @@
 package com.test.voting.cache;
 
 import com.test.voting.dto.SessionCache;
+import com.test.voting.exception.ResourceNotFoundException;
 import com.test.voting.model.Session;
 import com.test.voting.model.enums.SessionStatus;
-import com.test.voting.service.SessionService;
+import com.test.voting.repository.SessionRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,27 +12,38 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.HashOperations;
 import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.data.redis.core.ValueOperations;
-import tools.jackson.databind.ObjectMapper;
 
 import java.time.*;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class SessionValidationCacheTest {
 
+    private static final String KEY = "session:{1}";
+    private static final List<Object> FIELDS = List.of("status", "expiresAt");
+
     @Mock
     private StringRedisTemplate redis;
     @Mock
-    private ObjectMapper objectMapper;
-    @Mock
-    private SessionService sessionService;
+    private SessionRepository sessionRepository;
     @Mock
-    private ValueOperations<String, String> valueOps;
+    private HashOperations<String, Object, Object> hashOps;
     @Mock
     private Clock clock;
 
@@ -43,26 +55,23 @@ class SessionValidationCacheTest {
     @BeforeEach
     void setUp() {
 
-        when(redis.opsForValue()).thenReturn(valueOps);
+        when(redis.opsForHash()).thenReturn(hashOps);
     }
 
     @Test
     void shouldReturnFromCacheWhenPresent() {
         Instant expiresAt = Instant.parse("2026-02-17T13:00:00Z");
-        String json = "{\"status\":\"OPEN\",\"expiresAt\":\"2026-02-17T13:00:00Z\"}";
 
         SessionCache expected = new SessionCache(SessionStatus.OPEN, expiresAt);
 
-        when(valueOps.get("session:1")).thenReturn(json);
-        when(objectMapper.readValue(json,SessionCache.class))
-                .thenReturn(expected);
+        when(hashOps.multiGet(KEY, FIELDS)).thenReturn(cached("OPEN", expiresAt));
 
         SessionCache result = sessionCache.get(1L);
 
         assertThat(result).isEqualTo(expected);
 
-        verifyNoInteractions(sessionService);
-        verify(valueOps, never()).set(anyString(), anyString(), any(Duration.class));
+        verifyNoInteractions(sessionRepository);
+        verify(hashOps, never()).putAll(anyString(), anyMap());
     }
 
     @Test
@@ -75,9 +84,8 @@ class SessionValidationCacheTest {
                 .expirationTime(LocalDateTime.ofInstant(expiresAt, ZoneOffset.UTC))
                 .build();
 
-        when(valueOps.get("session:1")).thenReturn(null);
-        when(sessionService.findById(1L)).thenReturn(session);
-        when(objectMapper.writeValueAsString(any(SessionCache.class))).thenReturn("{\"ok\":true}");
+        when(hashOps.multiGet(KEY, FIELDS)).thenReturn(Arrays.asList(null, null));
+        when(sessionRepository.findById(1L)).thenReturn(Optional.of(session));
         when(clock.getZone()).thenReturn(ZoneOffset.UTC);
         when(clock.instant()).thenReturn(Instant.parse("2026-02-17T12:00:00Z"));
 
@@ -86,13 +94,17 @@ class SessionValidationCacheTest {
         assertThat(result.status()).isEqualTo(SessionStatus.OPEN);
         assertThat(result.expiresAt()).isEqualTo(expiresAt);
 
+        verify(hashOps).putAll(KEY, Map.of(
+                "status", "OPEN",
+                "expiresAt", String.valueOf(expiresAt.toEpochMilli())));
+
         ArgumentCaptor<Duration> ttlCaptor = ArgumentCaptor.forClass(Duration.class);
-        verify(valueOps).set(eq("session:1"), eq("{\"ok\":true}"), ttlCaptor.capture());
+        verify(redis).expire(eq(KEY), ttlCaptor.capture());
 
         Duration expectedTtl = Duration.between(TIME_NOW, expiresAt).plusSeconds(60);
         assertThat(ttlCaptor.getValue()).isEqualTo(expectedTtl);
 
-        verify(sessionService).findById(1L);
+        verify(sessionRepository).findById(1L);
     }
 
     @Test
@@ -105,12 +117,9 @@ class SessionValidationCacheTest {
                 .expirationTime(LocalDateTime.ofInstant(expiresAt, ZoneOffset.UTC))
                 .build();
 
-        when(valueOps.get("session:1")).thenReturn("invalid-json");
-        when(objectMapper.readValue(eq("invalid-json"), eq(SessionCache.class)))
-                .thenThrow(new RuntimeException("parse error"));
+        when(hashOps.multiGet(KEY, FIELDS)).thenReturn(List.of("OPEN", "not-a-number"));
 
-        when(sessionService.findById(1L)).thenReturn(session);
-        when(objectMapper.writeValueAsString(any(SessionCache.class))).thenReturn("{}");
+        when(sessionRepository.findById(1L)).thenReturn(Optional.of(session));
         when(clock.getZone()).thenReturn(ZoneOffset.UTC);
         when(clock.instant()).thenReturn(Instant.parse("2026-02-17T12:00:00Z"));
 
@@ -119,10 +128,198 @@ class SessionValidationCacheTest {
         assertThat(result.status()).isEqualTo(SessionStatus.CLOSE);
         assertThat(result.expiresAt()).isEqualTo(expiresAt);
 
-        verify(sessionService).findById(1L);
-        verify(valueOps).set(eq("session:1"), eq("{}"), any(Duration.class));
+        verify(sessionRepository).findById(1L);
+        verify(hashOps).putAll(eq(KEY), anyMap());
+        verify(redis).expire(eq(KEY), any(Duration.class));
+    }
+
+    @Test
+    void shouldServeRepeatedLookupsFromLocalTier() {
+        Instant expiresAt = Instant.parse("2026-02-17T13:00:00Z");
+        when(hashOps.multiGet(KEY, FIELDS)).thenReturn(cached("OPEN", expiresAt));
+
+        sessionCache.get(1L);
+        SessionCache result = sessionCache.get(1L);
+
+        assertThat(result).isEqualTo(new SessionCache(SessionStatus.OPEN, expiresAt));
+        verify(hashOps, times(1)).multiGet(KEY, FIELDS);
+    }
+
+    @Test
+    void shouldReloadAndBroadcastAfterInvalidation() {
+        Instant expiresAt = Instant.parse("2026-02-17T13:00:00Z");
+        when(hashOps.multiGet(KEY, FIELDS)).thenReturn(cached("OPEN", expiresAt));
+
+        sessionCache.get(1L);
+        sessionCache.invalidate(1L);
+        sessionCache.get(1L);
+
+        verify(redis).delete(KEY);
+        verify(redis).convertAndSend(eq(SessionValidationCache.INVALIDATION_CHANNEL), endsWith("|1"));
+        verify(hashOps, times(2)).multiGet(KEY, FIELDS);
+    }
+
+    @Test
+    void shouldReloadAfterLocalEviction() {
+        Instant expiresAt = Instant.parse("2026-02-17T13:00:00Z");
+        when(hashOps.multiGet(KEY, FIELDS)).thenReturn(cached("OPEN", expiresAt));
+
+        sessionCache.get(1L);
+        sessionCache.evictLocal(1L);
+        sessionCache.get(1L);
+
+        verify(hashOps, times(2)).multiGet(KEY, FIELDS);
+        verify(redis, never()).delete(anyString());
+    }
+
+    @Test
+    void shouldWriteThroughAllTiersOnPut() {
+        Instant expiresAt = TIME_NOW.plus(Duration.ofMinutes(5));
+        Session session = Session.builder()
+                .id(1L)
+                .status(SessionStatus.CLOSE)
+                .expirationTime(LocalDateTime.ofInstant(expiresAt, ZoneOffset.UTC))
+                .build();
+        when(clock.getZone()).thenReturn(ZoneOffset.UTC);
+        when(clock.instant()).thenReturn(TIME_NOW);
+
+        sessionCache.put(session);
+        SessionCache result = sessionCache.get(1L);
+
+        assertThat(result).isEqualTo(new SessionCache(SessionStatus.CLOSE, expiresAt));
+        verify(hashOps).putAll(KEY, Map.of(
+                "status", "CLOSE",
+                "expiresAt", String.valueOf(expiresAt.toEpochMilli())));
+        verify(redis).expire(eq(KEY), any(Duration.class));
+        verify(redis).convertAndSend(eq(SessionValidationCache.INVALIDATION_CHANNEL), endsWith("|1"));
+        verify(hashOps, never()).multiGet(anyString(), anyList());
+        verifyNoInteractions(sessionRepository);
     }
 
+    @Test
+    void shouldSkipOwnBroadcastButEvictOnOtherNodes() {
+        Instant expiresAt = TIME_NOW.plus(Duration.ofMinutes(5));
+        Session session = Session.builder()
+                .id(1L)
+                .status(SessionStatus.CLOSE)
+                .expirationTime(LocalDateTime.ofInstant(expiresAt, ZoneOffset.UTC))
+                .build();
+        when(clock.getZone()).thenReturn(ZoneOffset.UTC);
+        when(clock.instant()).thenReturn(TIME_NOW);
+        when(hashOps.multiGet(KEY, FIELDS)).thenReturn(cached("CLOSE", expiresAt));
+        ArgumentCaptor<String> sent = ArgumentCaptor.forClass(String.class);
+
+        sessionCache.put(session);
+        verify(redis).convertAndSend(eq(SessionValidationCache.INVALIDATION_CHANNEL), sent.capture());
+        sessionCache.onInvalidation(sent.getValue());
+        sessionCache.get(1L);
+        verify(hashOps, never()).multiGet(anyString(), anyList());
+
+        sessionCache.onInvalidation("another-node|1");
+        sessionCache.get(1L);
+        verify(hashOps, times(1)).multiGet(KEY, FIELDS);
+    }
 
+    @Test
+    void shouldRememberMissingSessionBriefly() {
+        when(hashOps.multiGet(KEY, FIELDS)).thenReturn(Arrays.asList(null, null));
+        when(sessionRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> sessionCache.get(1L)).isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> sessionCache.get(1L))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("Session not found with ID: 1");
 
+        verify(sessionRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void shouldLoadOnceForConcurrentMisses() throws Exception {
+        Instant expiresAt = TIME_NOW.plus(Duration.ofHours(1));
+        Session session = Session.builder()
+                .id(1L)
+                .status(SessionStatus.OPEN)
+                .expirationTime(LocalDateTime.ofInstant(expiresAt, ZoneOffset.UTC))
+                .build();
+        CountDownLatch release = new CountDownLatch(1);
+
+        when(hashOps.multiGet(KEY, FIELDS)).thenReturn(Arrays.asList(null, null));
+        when(sessionRepository.findById(1L)).thenAnswer(invocation -> {
+            release.await();
+            return Optional.of(session);
+        });
+        when(clock.getZone()).thenReturn(ZoneOffset.UTC);
+        when(clock.instant()).thenReturn(TIME_NOW);
+
+        List<Thread> callers = IntStream.range(0, 8)
+                .mapToObj(i -> Thread.ofPlatform().start(() -> sessionCache.get(1L)))
+                .toList();
+        // The loader parks on the latch and everyone else on its future.
+        while (callers.stream().anyMatch(t -> t.getState() != Thread.State.WAITING)) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+        for (Thread caller : callers) {
+            caller.join();
+        }
+
+        verify(sessionRepository, times(1)).findById(1L);
+        assertThat(sessionCache.get(1L).status()).isEqualTo(SessionStatus.OPEN);
+    }
+
+    @Test
+    void shouldFailWaitersInsteadOfHangingWhenLoaderThrowsError() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(hashOps.multiGet(KEY, FIELDS)).thenReturn(Arrays.asList(null, null));
+        when(sessionRepository.findById(1L)).thenAnswer(invocation -> {
+            release.await();
+            throw new NoClassDefFoundError("com/test/voting/model/Session");
+        });
+
+        CompletableFuture<SessionCache> loader = CompletableFuture.supplyAsync(() -> sessionCache.get(1L));
+        verify(sessionRepository, timeout(1_000)).findById(1L);
+        FutureTask<SessionCache> waiter = new FutureTask<>(() -> sessionCache.get(1L));
+        Thread waiterThread = Thread.ofPlatform().start(waiter);
+        while (waiterThread.getState() != Thread.State.WAITING) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        assertThatThrownBy(() -> loader.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(NoClassDefFoundError.class);
+        assertThatThrownBy(() -> waiter.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasRootCauseInstanceOf(NoClassDefFoundError.class);
+        verify(sessionRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void shouldNotLetRefreshJoinAnOlderRead() throws Exception {
+        LocalDateTime expiration = LocalDateTime.ofInstant(TIME_NOW.plus(Duration.ofHours(1)), ZoneOffset.UTC);
+        Session open = Session.builder().id(1L).status(SessionStatus.OPEN).expirationTime(expiration).build();
+        Session closed = Session.builder().id(1L).status(SessionStatus.CLOSE).expirationTime(expiration).build();
+        CountDownLatch release = new CountDownLatch(1);
+
+        when(hashOps.multiGet(KEY, FIELDS)).thenReturn(Arrays.asList(null, null));
+        when(sessionRepository.findById(1L))
+                .thenAnswer(invocation -> {
+                    release.await();
+                    return Optional.of(open);
+                })
+                .thenReturn(Optional.of(closed));
+        when(clock.getZone()).thenReturn(ZoneOffset.UTC);
+        when(clock.instant()).thenReturn(TIME_NOW);
+
+        CompletableFuture<SessionCache> staleRead = CompletableFuture.supplyAsync(() -> sessionCache.get(1L));
+        verify(sessionRepository, timeout(1_000)).findById(1L);
+
+        assertThat(sessionCache.refresh(1L).status()).isEqualTo(SessionStatus.CLOSE);
+
+        release.countDown();
+        staleRead.get(5, TimeUnit.SECONDS);
+        verify(sessionRepository, times(2)).findById(1L);
+    }
+
+    private List<Object> cached(String status, Instant expiresAt) {
+        return List.of(status, String.valueOf(expiresAt.toEpochMilli()));
+    }
 }
@@ -0,0 +1,127 @@
+package com.test.voting.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Properties;
+import java.util.function.BiConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares Redis memory per million votes for one key per vote against the packed per-session layout.
+ * Needs a dedicated Redis (the selected database is flushed):
+ * {@code mvn test -Dtest=VoteReservationMemoryBenchmarkTest -Dbenchmark.redis=true [-Dbenchmark.redis.host=localhost]}
+ */
+@EnabledIfSystemProperty(named = "benchmark.redis", matches = "true")
+class VoteReservationMemoryBenchmarkTest {
+
+    private static final int VOTES = 1_000_000;
+    private static final int PIPELINE_SIZE = 10_000;
+    private static final long SESSION_ID = 1L;
+    private static final long FIRST_CPF = 10_000_000_000L;
+
+    private LettuceConnectionFactory connectionFactory;
+    private StringRedisTemplate redis;
+
+    @BeforeEach
+    void setUp() {
+        RedisStandaloneConfiguration config = new RedisStandaloneConfiguration(
+                System.getProperty("benchmark.redis.host", "localhost"),
+                Integer.getInteger("benchmark.redis.port", 6379));
+        config.setDatabase(Integer.getInteger("benchmark.redis.database", 15));
+
+        connectionFactory = new LettuceConnectionFactory(config);
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redis = new StringRedisTemplate(connectionFactory);
+        flush();
+    }
+
+    @AfterEach
+    void tearDown() {
+        flush();
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void compareMemoryPerMillionVotes() throws IOException {
+        long legacy = measure(() -> { }, (connection, cpf) -> connection.stringCommands().set(
+                bytes("vote:" + SESSION_ID + ":" + cpf),
+                bytes("1"),
+                Expiration.milliseconds(Duration.ofHours(2).toMillis()),
+                SetOption.ifAbsent()));
+
+        byte[] script = new ClassPathResource("scripts/vote-admission.lua").getContentAsByteArray();
+        String sha = redis.execute((RedisCallback<String>) connection ->
+                connection.scriptingCommands().scriptLoad(script));
+        byte[] sessionKey = bytes(SessionValidationCache.key(SESSION_ID));
+        byte[] votesKey = bytes(VoteValidationCache.key(SESSION_ID));
+        byte[] grace = bytes("3600000");
+
+        long packed = measure(this::openSession, (connection, cpf) -> connection.scriptingCommands().evalSha(
+                sha, ReturnType.INTEGER, 2, sessionKey, votesKey, grace, bytes(String.valueOf(cpf))));
+
+        System.out.printf("Redis memory per %,d votes: one key per vote = %,d bytes, packed per session = %,d bytes (%.1fx)%n",
+                VOTES, legacy, packed, (double) legacy / packed);
+
+        assertThat(packed).isLessThan(legacy);
+    }
+
+    private long measure(Runnable setup, BiConsumer<RedisConnection, Long> command) {
+        flush();
+        setup.run();
+        long before = usedMemory();
+        for (int start = 0; start < VOTES; start += PIPELINE_SIZE) {
+            int from = start;
+            redis.executePipelined((RedisCallback<Object>) connection -> {
+                for (int i = from; i < Math.min(from + PIPELINE_SIZE, VOTES); i++) {
+                    command.accept(connection, FIRST_CPF + i * 7_919L);
+                }
+                return null;
+            });
+        }
+        long used = usedMemory() - before;
+        flush();
+        return used;
+    }
+
+    private void openSession() {
+        redis.opsForHash().putAll(SessionValidationCache.key(SESSION_ID), Map.of(
+                "status", "OPEN",
+                "expiresAt", String.valueOf(Instant.now().plus(Duration.ofHours(1)).toEpochMilli())));
+    }
+
+    private long usedMemory() {
+        Properties info = redis.execute((RedisCallback<Properties>) connection ->
+                connection.serverCommands().info("memory"));
+        return Long.parseLong(info.getProperty("used_memory"));
+    }
+
+    private void flush() {
+        redis.execute((RedisCallback<Object>) connection -> {
+            connection.serverCommands().flushDb();
+            return null;
+        });
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -1,15 +1,20 @@
 package com.test.voting.cache;
 
-import com.test.voting.repository.VoteRepository;
+import com.test.voting.dto.VoteMessage;
+import com.test.voting.model.enums.VoteAdmission;
+import com.test.voting.model.enums.VoteType;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatcher;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
 
-import java.time.Duration;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
@@ -18,76 +23,169 @@ import static org.mockito.Mockito.*;
 class VoteValidationCacheTest {
 
     private static final Long SESSION_ID = 1L;
-    private static final String CPF = "12345678909";
-    private static final Duration TTL = Duration.ofHours(1);
+    private static final long CPF = 12345678909L;
+    private static final String CPF_ARG = "12345678909";
+    private static final String GRACE = "3600000";
 
-    private static final String KEY = "vote:1:12345678909";
+    private static final String KEY = "votes:{1}";
+    private static final List<String> KEYS = List.of("session:{1}", KEY);
 
     @Mock
     private StringRedisTemplate redis;
 
     @Mock
-    private ValueOperations<String, String> valueOps;
+    private DegradedVoteAdmission degradedVoteAdmission;
 
     @Mock
-    private VoteRepository voteRepository;
+    private SessionValidationCache sessionValidationCache;
+
+    @Mock
+    private RedisScript<Long> voteAdmissionScript;
+
+    @Mock
+    private RedisScript<Long> voteReleaseScript;
 
-    @InjectMocks
     private VoteValidationCache voteValidationCache;
 
+    @BeforeEach
+    void setUp() {
+        voteValidationCache = new VoteValidationCache(
+                redis, degradedVoteAdmission, sessionValidationCache, voteAdmissionScript, voteReleaseScript);
+    }
+
+    @Test
+    void shouldAdmitWhenScriptReservesSlot() {
+        when(redis.execute(voteAdmissionScript, KEYS, GRACE, CPF_ARG)).thenReturn(1L);
+
+        VoteAdmission result = voteValidationCache.admit(SESSION_ID, CPF);
+
+        assertThat(result).isEqualTo(VoteAdmission.ADMITTED);
+        verifyNoInteractions(degradedVoteAdmission, sessionValidationCache);
+    }
+
+    @Test
+    void shouldReturnAlreadyVotedWhenSlotTaken() {
+        when(redis.execute(voteAdmissionScript, KEYS, GRACE, CPF_ARG)).thenReturn(2L);
+
+        VoteAdmission result = voteValidationCache.admit(SESSION_ID, CPF);
+
+        assertThat(result).isEqualTo(VoteAdmission.ALREADY_VOTED);
+        verifyNoInteractions(degradedVoteAdmission);
+    }
+
+    @Test
+    void shouldReturnSessionClosedWhenScriptRejectsSession() {
+        when(redis.execute(voteAdmissionScript, KEYS, GRACE, CPF_ARG)).thenReturn(0L);
+
+        VoteAdmission result = voteValidationCache.admit(SESSION_ID, CPF);
+
+        assertThat(result).isEqualTo(VoteAdmission.SESSION_CLOSED);
+        verifyNoInteractions(degradedVoteAdmission);
+    }
+
     @Test
-    void shouldReturnTrueWhenReserveSucceeds() {
-        when(redis.opsForValue()).thenReturn(valueOps);
-        when(valueOps.setIfAbsent(KEY, "1", TTL)).thenReturn(true);
+    void shouldRefreshSessionAndRetryWhenSessionNotCached() {
+        when(redis.execute(voteAdmissionScript, KEYS, GRACE, CPF_ARG)).thenReturn(-1L, 1L);
 
-        boolean result = voteValidationCache.reserve(SESSION_ID, CPF, TTL);
+        VoteAdmission result = voteValidationCache.admit(SESSION_ID, CPF);
 
-        assertThat(result).isTrue();
-        verify(valueOps).setIfAbsent(KEY, "1", TTL);
-        verifyNoInteractions(voteRepository);
+        assertThat(result).isEqualTo(VoteAdmission.ADMITTED);
+        verify(sessionValidationCache).refresh(SESSION_ID);
+        verify(redis, times(2)).execute(voteAdmissionScript, KEYS, GRACE, CPF_ARG);
+        verifyNoInteractions(degradedVoteAdmission);
     }
 
     @Test
-    void shouldReturnFalseWhenAlreadyReserved() {
-        when(redis.opsForValue()).thenReturn(valueOps);
-        when(valueOps.setIfAbsent(KEY, "1", TTL)).thenReturn(false);
+    void shouldFallbackToDbAndAdmitWhenRedisFailsAndVoteDoesNotExist() {
+        when(redis.execute(voteAdmissionScript, KEYS, GRACE, CPF_ARG)).thenThrow(new RuntimeException("Redis Down"));
+        when(degradedVoteAdmission.admit(SESSION_ID, CPF)).thenReturn(VoteAdmission.ADMITTED);
 
-        boolean result = voteValidationCache.reserve(SESSION_ID, CPF, TTL);
+        VoteAdmission result = voteValidationCache.admit(SESSION_ID, CPF);
 
-        assertThat(result).isFalse();
-        verify(valueOps).setIfAbsent(KEY, "1", TTL);
-        verifyNoInteractions(voteRepository);
+        assertThat(result).isEqualTo(VoteAdmission.ADMITTED);
+        verify(degradedVoteAdmission).admit(SESSION_ID, CPF);
     }
 
     @Test
-    void shouldFallbackToDbAndReturnTrueWhenRedisFailsAndVoteDoesNotExist() {
-        when(redis.opsForValue()).thenReturn(valueOps);
-        when(valueOps.setIfAbsent(KEY, "1", TTL)).thenThrow(new RuntimeException("Redis Down"));
-        when(voteRepository.existsBySessionIdAndCpf(SESSION_ID, CPF)).thenReturn(false);
+    void shouldFallbackToDbAndRejectWhenRedisFailsAndVoteAlreadyExists() {
+        when(redis.execute(voteAdmissionScript, KEYS, GRACE, CPF_ARG)).thenThrow(new RuntimeException("Redis Down"));
+        when(degradedVoteAdmission.admit(SESSION_ID, CPF)).thenReturn(VoteAdmission.ALREADY_VOTED);
 
-        boolean result = voteValidationCache.reserve(SESSION_ID, CPF, TTL);
+        VoteAdmission result = voteValidationCache.admit(SESSION_ID, CPF);
 
-        assertThat(result).isTrue();
-        verify(voteRepository).existsBySessionIdAndCpf(SESSION_ID, CPF);
+        assertThat(result).isEqualTo(VoteAdmission.ALREADY_VOTED);
+        verify(degradedVoteAdmission).admit(SESSION_ID, CPF);
     }
 
     @Test
-    void shouldFallbackToDbAndReturnFalseWhenRedisFailsAndVoteAlreadyExists() {
-        when(redis.opsForValue()).thenReturn(valueOps);
-        when(valueOps.setIfAbsent(KEY, "1", TTL)).thenThrow(new RuntimeException("Redis Down"));
-        when(voteRepository.existsBySessionIdAndCpf(SESSION_ID, CPF)).thenReturn(true);
+    void shouldPassCpfWithoutLeadingZerosToAdmissionScript() {
+        when(redis.execute(voteAdmissionScript, KEYS, GRACE, "1582728119")).thenReturn(1L);
 
-        boolean result = voteValidationCache.reserve(SESSION_ID, CPF, TTL);
+        VoteAdmission result = voteValidationCache.admit(SESSION_ID, 1582728119L);
 
-        assertThat(result).isFalse();
-        verify(voteRepository).existsBySessionIdAndCpf(SESSION_ID, CPF);
+        assertThat(result).isEqualTo(VoteAdmission.ADMITTED);
     }
 
     @Test
-    void shouldDeleteKeyOnRelease() {
+    void shouldRemoveCpfFromSessionContainerOnRelease() {
         voteValidationCache.release(SESSION_ID, CPF);
 
-        verify(redis).delete(KEY);
+        verify(redis).execute(voteReleaseScript, List.of(KEY), CPF_ARG);
+        verify(degradedVoteAdmission).release(SESSION_ID, CPF);
         verifyNoMoreInteractions(redis);
     }
+
+    @Test
+    void shouldAdmitBatchInOnePipeline() {
+        when(voteAdmissionScript.getScriptAsString()).thenReturn("return 1");
+        when(voteAdmissionScript.getSha1()).thenReturn("sha");
+        when(redis.executePipelined(any(RedisCallback.class))).thenReturn(List.of("sha", 1L, 2L, 0L));
+
+        List<VoteAdmission> result = voteValidationCache.admitAll(List.of(vote(11L), vote(12L), vote(13L)));
+
+        assertThat(result).containsExactly(
+                VoteAdmission.ADMITTED, VoteAdmission.ALREADY_VOTED, VoteAdmission.SESSION_CLOSED);
+        verify(redis, never()).execute(eq(voteAdmissionScript), anyList(), any(Object[].class));
+    }
+
+    @Test
+    void shouldAdmitOneByOneWhenPipelineCannotSettleVote() {
+        when(voteAdmissionScript.getScriptAsString()).thenReturn("return 1");
+        when(voteAdmissionScript.getSha1()).thenReturn("sha");
+        when(redis.executePipelined(any(RedisCallback.class))).thenReturn(List.of("sha", 1L, -1L));
+        when(redis.execute(eq(voteAdmissionScript), argThat(claimKeys()), eq(GRACE), eq("12"), eq("1")))
+                .thenReturn(1L);
+
+        List<VoteAdmission> result = voteValidationCache.admitAll(List.of(vote(11L), vote(12L)));
+
+        assertThat(result).containsExactly(VoteAdmission.ADMITTED, VoteAdmission.ADMITTED);
+        verify(redis, times(1)).execute(eq(voteAdmissionScript), anyList(), any(), any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldRetryFailedPipelineUnderTheSameClaimToken() {
+        when(voteAdmissionScript.getScriptAsString()).thenReturn("return 1");
+        when(voteAdmissionScript.getSha1()).thenReturn("sha");
+        when(redis.executePipelined(any(RedisCallback.class))).thenThrow(new RuntimeException("read timeout"));
+        when(redis.execute(eq(voteAdmissionScript), argThat(claimKeys()), eq(GRACE), anyString(), anyString()))
+                .thenReturn(1L);
+
+        List<VoteAdmission> result = voteValidationCache.admitAll(List.of(vote(11L), vote(12L)));
+
+        assertThat(result).containsExactly(VoteAdmission.ADMITTED, VoteAdmission.ADMITTED);
+        ArgumentCaptor<List<String>> keys = ArgumentCaptor.forClass(List.class);
+        verify(redis).execute(eq(voteAdmissionScript), keys.capture(), eq(GRACE), eq("11"), eq("0"));
+        verify(redis).execute(eq(voteAdmissionScript), keys.capture(), eq(GRACE), eq("12"), eq("1"));
+        assertThat(keys.getAllValues().get(0).get(2)).isEqualTo(keys.getAllValues().get(1).get(2));
+        verifyNoInteractions(degradedVoteAdmission);
+    }
+
+    private static ArgumentMatcher<List<String>> claimKeys() {
+        return keys -> keys.size() == 3 && keys.subList(0, 2).equals(KEYS) && keys.get(2).startsWith(KEY + ":claims:");
+    }
+
+    private VoteMessage vote(long cpf) {
+        return VoteMessage.builder().sessionId(SESSION_ID).cpf(cpf).vote(VoteType.YES).build();
+    }
 }
@@ -45,4 +45,16 @@ class CpfValidationFacadeTest {
         assertThat(response).isNotNull();
         assertThat(response.status()).isIn(VoteStatus.ABLE_TO_VOTE, VoteStatus.UNABLE_TO_VOTE);
     }
+
+    @ParameterizedTest
+    @ValueSource(longs = {59186232134L, 1582728119L, 12345678909L})
+    void shouldAcceptNumericCpfWithValidCheckDigits(long cpf) {
+        assertThat(facade.validateCpf(cpf)).isNotNull();
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {0L, 11111111111L, 99999999999L, 12345678900L, -1L, 100000000000L})
+    void shouldRejectInvalidNumericCpf(long cpf) {
+        assertThat(facade.validateCpf(cpf)).isNull();
+    }
 }
@@ -0,0 +1,90 @@
+package com.test.voting.messaging;
+
+import com.test.voting.config.VoteIngestProperties;
+import com.test.voting.config.VoteIngestTuningProperties;
+import com.test.voting.config.VoteShardProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(MockitoExtension.class)
+class IngestTunerTest {
+
+    private static final int POOL_SIZE = 15;
+    private static final int CONTAINERS = 5;
+
+    @Mock
+    private RabbitListenerEndpointRegistry listenerRegistry;
+    @Mock
+    private AmqpAdmin amqpAdmin;
+    @Mock
+    private DataSource dataSource;
+
+    private IngestTuner tuner;
+
+    @BeforeEach
+    void setUp() {
+        tuner = new IngestTuner(
+                new VoteIngestTuningProperties(true, 2000, 1000, 10, 500, 1, 4, 5),
+                new VoteIngestProperties(VoteIngestProperties.Mode.BATCH, 50),
+                new VoteShardProperties(4, 1),
+                listenerRegistry, amqpAdmin, dataSource);
+    }
+
+    @Test
+    void shouldGrowBatchWhenBacklogged() {
+        IngestTuner.Settings next = tuner.decide(new IngestTuner.Settings(50, 1), sample(1_000, 100_000, 0, 0));
+
+        assertThat(next).isEqualTo(new IngestTuner.Settings(75, 1));
+    }
+
+    @Test
+    void shouldAddConsumerWhenBiggerBatchLowersThroughput() {
+        IngestTuner.Settings grown = tuner.decide(new IngestTuner.Settings(50, 1), sample(10_000, 100_000, 0, 0));
+
+        IngestTuner.Settings next = tuner.decide(grown, sample(8_000, 100_000, 0, 0));
+
+        assertThat(next).isEqualTo(new IngestTuner.Settings(50, 2));
+    }
+
+    @Test
+    void shouldGrowBatchWhenLagExceedsSloEvenWithShortQueue() {
+        IngestTuner.Settings next = tuner.decide(new IngestTuner.Settings(50, 1), sample(1_000, 0, 5_000, 0));
+
+        assertThat(next.batchSize()).isEqualTo(75);
+    }
+
+    @Test
+    void shouldNeverExceedPoolBudget() {
+        IngestTuner.Settings next = tuner.decide(new IngestTuner.Settings(500, 2), sample(1_000, 1_000_000, 0, 0));
+
+        // (15 pool - 5 reserved) / 5 containers
+        assertThat(next.consumers()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldReleaseConsumerWhenThreadsWaitForConnections() {
+        IngestTuner.Settings next = tuner.decide(new IngestTuner.Settings(200, 2), sample(1_000, 1_000_000, 5_000, 3));
+
+        assertThat(next).isEqualTo(new IngestTuner.Settings(200, 1));
+    }
+
+    @Test
+    void shouldShrinkTowardMinimumOnTrickleTraffic() {
+        IngestTuner.Settings next = tuner.decide(new IngestTuner.Settings(200, 2), sample(20, 3, 50, 0));
+
+        assertThat(next).isEqualTo(new IngestTuner.Settings(100, 1));
+    }
+
+    private IngestTuner.Sample sample(double rowsPerSecond, long queueDepth, long lagMillis, int awaiting) {
+        return new IngestTuner.Sample(rowsPerSecond, lagMillis, queueDepth, POOL_SIZE, awaiting, CONTAINERS);
+    }
+}
@@ -0,0 +1,134 @@
+package com.test.voting.messaging;
+
+import com.test.voting.config.VotePublishProperties;
+import com.test.voting.config.VoteShardProperties;
+import com.test.voting.dto.VoteMessage;
+import com.test.voting.model.enums.VoteType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VoteBatcherTest {
+
+    @Mock
+    private VoteRoutingPublisher routingPublisher;
+    @Mock
+    private VoteSpool voteSpool;
+
+    private VoteBatcher batcher;
+
+    @AfterEach
+    void tearDown() {
+        if (batcher != null) batcher.stop();
+    }
+
+    @Test
+    void shouldPublishOneEnvelopePerMaxVotes() {
+        batcher = batcher(VotePublishProperties.Durability.ASYNC, 3, Duration.ofMillis(200));
+        when(routingPublisher.publishEnvelopeToMain(anyList())).thenAnswer(i -> new VoteCorrelation(i.<List<VoteMessage>>getArgument(0)));
+
+        for (int i = 0; i < 3; i++) {
+            batcher.submit(vote(i));
+        }
+
+        verify(routingPublisher, timeout(1_000)).publishEnvelopeToMain(List.of(vote(0), vote(1), vote(2)));
+        verify(routingPublisher, never()).publishToMain(any());
+    }
+
+    @Test
+    void shouldSplitFlushIntoOneEnvelopePerShard() {
+        batcher = batcher(VotePublishProperties.Durability.ASYNC, 100, Duration.ofMillis(1));
+        when(routingPublisher.publishEnvelopeToMain(anyList())).thenAnswer(i -> new VoteCorrelation(i.<List<VoteMessage>>getArgument(0)));
+        VoteMessage shard0 = VoteMessage.builder().sessionId(2L).cpf(1L).vote(VoteType.NO).build();
+
+        List<VoteBatcher.PendingVote> batch = new ArrayList<>();
+        batch.add(new VoteBatcher.PendingVote(vote(1), new CompletableFuture<>()));
+        batch.add(new VoteBatcher.PendingVote(shard0, new CompletableFuture<>()));
+        batch.add(new VoteBatcher.PendingVote(vote(2), new CompletableFuture<>()));
+        batcher.flush(batch);
+
+        verify(routingPublisher).publishEnvelopeToMain(List.of(vote(1), vote(2)));
+        verify(routingPublisher).publishEnvelopeToMain(List.of(shard0));
+    }
+
+    @Test
+    void shouldFlushPartialEnvelopeAfterLinger() {
+        batcher = batcher(VotePublishProperties.Durability.ASYNC, 100, Duration.ofMillis(5));
+        when(routingPublisher.publishEnvelopeToMain(anyList())).thenAnswer(i -> new VoteCorrelation(i.<List<VoteMessage>>getArgument(0)));
+
+        batcher.submit(vote(1));
+
+        verify(routingPublisher, timeout(1_000)).publishEnvelopeToMain(List.of(vote(1)));
+    }
+
+    @Test
+    void shouldHoldRequestUntilEnvelopeIsConfirmedInConfirmedMode() {
+        batcher = batcher(VotePublishProperties.Durability.CONFIRMED, 100, Duration.ofMillis(1));
+        when(routingPublisher.publishEnvelopeToMain(anyList())).thenAnswer(i -> {
+            VoteCorrelation correlation = new VoteCorrelation(i.<List<VoteMessage>>getArgument(0));
+            correlation.getFuture().complete(new CorrelationData.Confirm(false, "nack"));
+            return correlation;
+        });
+
+        assertThatThrownBy(() -> batcher.submit(vote(1)))
+                .isInstanceOf(AmqpException.class);
+    }
+
+    @Test
+    void shouldRevokeVotesWhenEnvelopeCannotBeSentInAsyncMode() {
+        batcher = batcher(VotePublishProperties.Durability.ASYNC, 100, Duration.ofMillis(1));
+        when(routingPublisher.publishEnvelopeToMain(anyList())).thenThrow(new AmqpException("connection lost"));
+
+        List<VoteBatcher.PendingVote> batch = new ArrayList<>();
+        batch.add(new VoteBatcher.PendingVote(vote(1), new CompletableFuture<>()));
+        batcher.flush(batch);
+
+        verify(routingPublisher).revoke(vote(1));
+    }
+
+    @Test
+    void shouldSpoolEnvelopeWhenBrokerCannotTakeIt() {
+        batcher = batcher(VotePublishProperties.Durability.ASYNC, 100, Duration.ofMillis(1));
+        when(routingPublisher.publishEnvelopeToMain(anyList())).thenThrow(new AmqpException("connection lost"));
+        when(voteSpool.isEnabled()).thenReturn(true);
+
+        CompletableFuture<Void> published = new CompletableFuture<>();
+        List<VoteBatcher.PendingVote> batch = new ArrayList<>();
+        batch.add(new VoteBatcher.PendingVote(vote(1), published));
+        batcher.flush(batch);
+
+        verify(voteSpool).spool(List.of(vote(1)));
+        verify(routingPublisher, never()).revoke(any());
+        assertThat(published).isCompleted().isNotCompletedExceptionally();
+    }
+
+    private VoteBatcher batcher(VotePublishProperties.Durability durability, int maxVotes, Duration linger) {
+        VoteBatcher voteBatcher = new VoteBatcher(routingPublisher, voteSpool, new SimpleMeterRegistry(),
+                new VotePublishProperties(durability, Duration.ofMillis(200),
+                        new VotePublishProperties.Batching(true, maxVotes, linger, 100),
+                        VotePublishProperties.WireFormat.BINARY),
+                new VoteShardProperties(2, 1));
+        voteBatcher.start();
+        return voteBatcher;
+    }
+
+    private VoteMessage vote(int i) {
+        return VoteMessage.builder().sessionId(1L).cpf(12345678900L + i).vote(VoteType.YES).build();
+    }
+}
@@ -0,0 +1,78 @@
+package com.test.voting.messaging;
+
+import com.test.voting.dto.VoteBatchMessage;
+import com.test.voting.dto.VoteMessage;
+import com.test.voting.model.enums.VoteType;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.JacksonJsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConversionException;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class VoteBinaryMessageConverterTest {
+
+    private final JacksonJsonMessageConverter json = new JacksonJsonMessageConverter();
+    private final VoteBinaryMessageConverter converter = new VoteBinaryMessageConverter(json, true);
+
+    private final VoteMessage vote = new VoteMessage(7L, 12345678909L, VoteType.NO, 1_700_000_000_000L);
+
+    @Test
+    void shouldRoundTripSingleVoteInFixedLayout() {
+        Message message = converter.toMessage(vote, new MessageProperties());
+
+        assertThat(message.getBody()).hasSize(1 + VoteBinaryMessageConverter.VOTE_BYTES);
+        assertThat(message.getMessageProperties().getContentType()).isEqualTo(VoteBinaryMessageConverter.CONTENT_TYPE);
+        assertThat(message.getMessageProperties().<Integer>getHeader(VoteBinaryMessageConverter.HEADER_FORMAT_VERSION))
+                .isEqualTo(VoteBinaryMessageConverter.FORMAT_VERSION);
+        assertThat(converter.fromMessage(message)).isEqualTo(vote);
+    }
+
+    @Test
+    void shouldRoundTripEnvelopeAndMissingTimestamp() {
+        VoteMessage legacy = new VoteMessage(7L, 98765432100L, VoteType.YES, null);
+        VoteBatchMessage envelope = new VoteBatchMessage(List.of(vote, legacy));
+
+        Object decoded = converter.fromMessage(converter.toMessage(envelope, new MessageProperties()));
+
+        assertThat(decoded).isEqualTo(envelope);
+    }
+
+    @Test
+    void shouldStillReadLegacyJsonMessages() {
+        Message legacy = json.toMessage(vote, new MessageProperties());
+
+        assertThat(converter.fromMessage(legacy)).isEqualTo(vote);
+    }
+
+    @Test
+    void shouldWriteJsonWhenBinaryWritesAreOff() {
+        Message message = new VoteBinaryMessageConverter(json, false).toMessage(vote, new MessageProperties());
+
+        assertThat(message.getMessageProperties().getContentType()).isEqualTo(MessageProperties.CONTENT_TYPE_JSON);
+        assertThat(converter.fromMessage(message)).isEqualTo(vote);
+    }
+
+    @Test
+    void shouldRejectUnknownFormatVersion() {
+        Message message = converter.toMessage(vote, new MessageProperties());
+        message.getMessageProperties().setHeader(VoteBinaryMessageConverter.HEADER_FORMAT_VERSION, 2);
+
+        assertThatThrownBy(() -> converter.fromMessage(message))
+                .isInstanceOf(MessageConversionException.class);
+    }
+
+    @Test
+    void shouldRejectTruncatedBody() {
+        Message message = converter.toMessage(new VoteBatchMessage(List.of(vote, vote)), new MessageProperties());
+        byte[] truncated = Arrays.copyOf(message.getBody(), message.getBody().length - 3);
+
+        assertThatThrownBy(() -> converter.fromMessage(new Message(truncated, message.getMessageProperties())))
+                .isInstanceOf(MessageConversionException.class);
+    }
+}
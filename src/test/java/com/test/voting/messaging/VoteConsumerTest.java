@@ -1,22 +1,32 @@
 package com.test.voting.messaging;
 
 import com.rabbitmq.client.Channel;
+import com.test.voting.dto.BatchInsertResult;
+import com.test.voting.dto.VoteBatchMessage;
 import com.test.voting.dto.VoteMessage;
 import com.test.voting.model.enums.VoteType;
 import com.test.voting.repository.VoteBatchInserter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpException;
 import org.springframework.amqp.core.Message;
 import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.CannotCreateTransactionException;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -30,9 +40,12 @@ class VoteConsumerTest {
     @Mock
     private VoteBatchInserter voteBatchInserter;
     @Mock
+    private IngestTuner ingestTuner;
+    @Mock
     private Channel channel;
 
-    @InjectMocks
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     private VoteConsumer voteConsumer;
 
     private VoteMessage voteMessage;
@@ -40,9 +53,10 @@ class VoteConsumerTest {
 
     @BeforeEach
     void setUp() {
+        voteConsumer = new VoteConsumer(routingPublisher, jsonMessageConverter, voteBatchInserter, ingestTuner, meterRegistry);
         msg = createMessage(10L);
         voteMessage = VoteMessage.builder()
-                .sessionId(1L).cpf("12345678909").vote(VoteType.YES).build();
+                .sessionId(1L).cpf(12345678909L).vote(VoteType.YES).build();
         when(jsonMessageConverter.fromMessage(msg)).thenReturn(voteMessage);
     }
 
@@ -50,11 +64,13 @@ class VoteConsumerTest {
     void shouldAckAndInsertBatchOnSuccess() throws IOException {
 
         when(jsonMessageConverter.fromMessage(msg)).thenReturn(voteMessage);
+        when(voteBatchInserter.insertBatch(anyList())).thenReturn(new BatchInsertResult(1, 0, List.of()));
 
         voteConsumer.consume(List.of(msg), channel);
 
         verify(voteBatchInserter).insertBatch(anyList());
         verify(channel).basicAck(10L, true);
+        verify(ingestTuner).recordBatch(eq(1), anyLong());
         verifyNoInteractions(routingPublisher);
     }
 
@@ -69,6 +85,111 @@ class VoteConsumerTest {
         verify(routingPublisher).routeRetryOrDlq(eq(msg), any(RuntimeException.class));
     }
 
+    @Test
+    void shouldAckOnlyAfterFailuresAreRouted() throws IOException {
+        RuntimeException failure = new RuntimeException("DB error");
+        doThrow(failure).when(voteBatchInserter).insertBatch(anyList());
+        doThrow(new AmqpException("broker down")).when(routingPublisher).routeRetryOrDlq(msg, failure);
+
+        assertThatThrownBy(() -> voteConsumer.consume(List.of(msg), channel)).isInstanceOf(AmqpException.class);
+
+        verify(channel, never()).basicAck(anyLong(), anyBoolean());
+    }
+
+    @Test
+    void shouldSendUndecodableDeliveryToDlqAndStoreTheRest() throws IOException {
+        Message garbage = createMessage(11L);
+        MessageConversionException decodeFailure = new MessageConversionException("unknown x-vote-format 9");
+        when(jsonMessageConverter.fromMessage(garbage)).thenThrow(decodeFailure);
+        when(voteBatchInserter.insertBatch(anyList())).thenReturn(new BatchInsertResult(1, 0, List.of()));
+
+        voteConsumer.consume(List.of(msg, garbage), channel);
+
+        InOrder inOrder = inOrder(routingPublisher, voteBatchInserter, channel);
+        inOrder.verify(routingPublisher).routeToDlq(garbage, decodeFailure);
+        inOrder.verify(voteBatchInserter).insertBatch(List.of(voteMessage));
+        inOrder.verify(channel).basicAck(11L, true);
+        assertThat(meterRegistry.counter(VoteConsumer.POISON_METRIC).count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldAckWhenEveryDeliveryIsUndecodable() throws IOException {
+        MessageConversionException decodeFailure = new MessageConversionException("truncated");
+        when(jsonMessageConverter.fromMessage(msg)).thenThrow(decodeFailure);
+
+        voteConsumer.consume(List.of(msg), channel);
+
+        verify(routingPublisher).routeToDlq(msg, decodeFailure);
+        verify(channel).basicAck(10L, true);
+        verifyNoInteractions(voteBatchInserter);
+    }
+
+    @Test
+    void shouldUnpackEnvelopesAlongsideSingleVotes() throws IOException {
+        Message envelopeMsg = createMessage(11L);
+        VoteMessage other = VoteMessage.builder().sessionId(1L).cpf(98765432100L).vote(VoteType.NO).build();
+        when(jsonMessageConverter.fromMessage(envelopeMsg)).thenReturn(new VoteBatchMessage(List.of(other, other)));
+        when(voteBatchInserter.insertBatch(anyList())).thenReturn(new BatchInsertResult(3, 0, List.of()));
+
+        voteConsumer.consume(List.of(msg, envelopeMsg), channel);
+
+        verify(voteBatchInserter).insertBatch(List.of(voteMessage, other, other));
+        verify(channel).basicAck(11L, true);
+    }
+
+    @Test
+    void shouldRouteEnvelopeVotesIndividuallyOnBatchFailure() throws IOException {
+        Message envelopeMsg = createMessage(11L);
+        List<VoteMessage> envelopeVotes = List.of(voteMessage, voteMessage);
+        when(jsonMessageConverter.fromMessage(envelopeMsg)).thenReturn(new VoteBatchMessage(envelopeVotes));
+        doThrow(new RuntimeException("DB error")).when(voteBatchInserter).insertBatch(anyList());
+
+        voteConsumer.consume(List.of(msg, envelopeMsg), channel);
+
+        verify(routingPublisher).routeRetryOrDlq(eq(msg), any(RuntimeException.class));
+        verify(routingPublisher, times(2)).routeRetryOrDlq(eq(envelopeMsg), eq(List.of(voteMessage)), any(RuntimeException.class));
+    }
+
+    @Test
+    void shouldIsolatePoisonVoteByBisectingAndStoreTheRest() throws IOException {
+        VoteMessage poison = VoteMessage.builder().sessionId(99L).cpf(11144477735L).vote(VoteType.NO).build();
+        List<Message> messages = new ArrayList<>(List.of(msg));
+        for (int i = 1; i < 8; i++) {
+            Message m = createMessage(20L + i);
+            when(jsonMessageConverter.fromMessage(m)).thenReturn(i == 5 ? poison : voteMessage);
+            messages.add(m);
+        }
+        when(voteBatchInserter.insertBatch(anyList())).thenAnswer(invocation -> {
+            List<VoteMessage> votes = invocation.getArgument(0);
+            if (votes.contains(poison)) {
+                throw new DataIntegrityViolationException("fk_vote_session");
+            }
+            return new BatchInsertResult(votes.size(), 0, List.of());
+        });
+
+        voteConsumer.consume(messages, channel);
+
+        verify(channel).basicAck(27L, true);
+        verify(routingPublisher).routeRetryOrDlq(eq(messages.get(5)), any(DataIntegrityViolationException.class));
+        verify(routingPublisher, times(1)).routeRetryOrDlq(any(Message.class), any(Exception.class));
+        assertThat(meterRegistry.counter(VoteConsumer.POISON_METRIC).count()).isEqualTo(1);
+        // 8 -> 4 -> 2 -> 1
+        assertThat(meterRegistry.summary(VoteConsumer.BISECTION_DEPTH_METRIC).max()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldNotBisectOnTransientDatabaseFailure() throws IOException {
+        Message second = createMessage(11L);
+        when(jsonMessageConverter.fromMessage(second)).thenReturn(voteMessage);
+        when(voteBatchInserter.insertBatch(anyList())).thenThrow(new CannotCreateTransactionException("pool exhausted"));
+
+        voteConsumer.consume(List.of(msg, second), channel);
+
+        verify(voteBatchInserter, times(1)).insertBatch(anyList());
+        verify(routingPublisher).routeRetryOrDlq(eq(msg), any(CannotCreateTransactionException.class));
+        verify(routingPublisher).routeRetryOrDlq(eq(second), any(CannotCreateTransactionException.class));
+    }
+
     private Message createMessage(long deliveryTag) {
         MessageProperties props = new MessageProperties();
         props.setDeliveryTag(deliveryTag);
@@ -0,0 +1,197 @@
+package com.test.voting.messaging;
+
+import com.test.voting.dto.VoteMessage;
+import com.test.voting.model.enums.VoteType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VoteJournalTest {
+
+    private static final int SEGMENT_BYTES = VoteJournal.RECORD_BYTES * 64;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldReadBackOnlySyncedVotesInOrder() throws Exception {
+        try (VoteJournal journal = VoteJournal.open(directory, SEGMENT_BYTES)) {
+            journal.append(vote(0));
+            journal.append(vote(1));
+            assertThat(journal.read(10).votes()).isEmpty();
+
+            journal.sync();
+
+            assertThat(journal.awaitSynced(1, Duration.ZERO)).isTrue();
+            assertThat(journal.read(10).votes()).containsExactly(vote(0), vote(1));
+            assertThat(journal.pending()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void shouldWakeIdleSyncerAndDrainerOnlyWhenThereIsWork() throws Exception {
+        try (VoteJournal journal = VoteJournal.open(directory, SEGMENT_BYTES)) {
+            assertThat(journal.awaitUnsynced(Duration.ofMillis(10))).isFalse();
+            assertThat(journal.awaitReadable(Duration.ofMillis(10))).isFalse();
+
+            journal.append(vote(0));
+            assertThat(journal.awaitUnsynced(Duration.ZERO)).isTrue();
+            assertThat(journal.awaitReadable(Duration.ofMillis(10))).isFalse();
+
+            journal.sync();
+            assertThat(journal.awaitUnsynced(Duration.ofMillis(10))).isFalse();
+            assertThat(journal.awaitReadable(Duration.ZERO)).isTrue();
+        }
+    }
+
+    @Test
+    void shouldResumeFromCheckpointAfterReopen() throws Exception {
+        try (VoteJournal journal = VoteJournal.open(directory, SEGMENT_BYTES)) {
+            append(journal, 0, 150);
+            journal.commit(journal.read(100));
+        }
+
+        try (VoteJournal journal = VoteJournal.open(directory, SEGMENT_BYTES)) {
+            assertThat(journal.pending()).isEqualTo(50);
+            assertThat(journal.read(1000).votes()).isEqualTo(votes(100, 150));
+
+            append(journal, 150, 160);
+            assertThat(journal.read(1000).votes()).isEqualTo(votes(100, 160));
+        }
+    }
+
+    @Test
+    void shouldDeleteSegmentsOnceDrained() throws Exception {
+        try (VoteJournal journal = VoteJournal.open(directory, SEGMENT_BYTES)) {
+            append(journal, 0, 200);
+            assertThat(segmentFiles()).hasSize(4);
+
+            journal.commit(journal.read(200));
+
+            assertThat(segmentFiles()).hasSize(1);
+            assertThat(journal.pending()).isZero();
+        }
+    }
+
+    @Test
+    void shouldDropTornRecordAndOverwriteIt() throws Exception {
+        try (VoteJournal journal = VoteJournal.open(directory, SEGMENT_BYTES)) {
+            append(journal, 0, 10);
+        }
+        // A crash halfway through record 9: its CRC is in, the tail of the vote is not.
+        try (RandomAccessFile segment = new RandomAccessFile(segmentFiles().getFirst().toFile(), "rw")) {
+            segment.seek(9L * VoteJournal.RECORD_BYTES + 20);
+            segment.write(new byte[VoteJournal.RECORD_BYTES - 20]);
+        }
+
+        try (VoteJournal journal = VoteJournal.open(directory, SEGMENT_BYTES)) {
+            assertThat(journal.pending()).isEqualTo(9);
+            append(journal, 100, 101);
+            assertThat(journal.read(100).votes()).containsExactlyElementsOf(
+                    Stream.concat(votes(0, 9).stream(), Stream.of(vote(100))).toList());
+        }
+    }
+
+    @Test
+    void shouldReplayEverythingWhenCheckpointIsTorn() throws Exception {
+        try (VoteJournal journal = VoteJournal.open(directory, SEGMENT_BYTES)) {
+            append(journal, 0, 20);
+            journal.commit(journal.read(15));
+        }
+        try (RandomAccessFile checkpoint = new RandomAccessFile(directory.resolve("checkpoint").toFile(), "rw")) {
+            checkpoint.seek(8);
+            checkpoint.writeLong(0);
+        }
+
+        try (VoteJournal journal = VoteJournal.open(directory, SEGMENT_BYTES)) {
+            assertThat(journal.read(100).votes()).isEqualTo(votes(0, 20));
+        }
+    }
+
+    // kill -9 of a writer mid-append: every vote it reported as synced must come back, in order,
+    // followed by at most the unsynced ones that made it into the page cache.
+    @Test
+    void shouldRecoverSyncedVotesAfterWriterIsKilled() throws Exception {
+        Process writer = new ProcessBuilder(
+                ProcessHandle.current().info().command().orElse("java"),
+                "-cp", System.getProperty("java.class.path"),
+                CrashWriter.class.getName(), directory.toString())
+                .redirectErrorStream(true)
+                .start();
+        long synced = 0;
+        try (BufferedReader out = new BufferedReader(new InputStreamReader(writer.getInputStream()))) {
+            String line;
+            while (synced < 5_000 && (line = out.readLine()) != null) {
+                if (line.startsWith("synced ")) synced = Long.parseLong(line.substring(7));
+            }
+        } finally {
+            writer.destroyForcibly();
+            writer.waitFor(10, TimeUnit.SECONDS);
+        }
+        assertThat(synced).isGreaterThanOrEqualTo(5_000);
+
+        try (VoteJournal journal = VoteJournal.open(directory, SEGMENT_BYTES)) {
+            long recovered = journal.pending();
+            assertThat(recovered).isGreaterThanOrEqualTo(synced);
+
+            List<VoteMessage> votes = new ArrayList<>();
+            while (votes.size() < recovered) {
+                VoteJournal.Batch batch = journal.read(1000);
+                votes.addAll(batch.votes());
+                journal.commit(batch);
+            }
+            assertThat(votes).isEqualTo(votes(0, recovered));
+        }
+    }
+
+    static class CrashWriter {
+        public static void main(String[] args) throws Exception {
+            VoteJournal journal = VoteJournal.open(Path.of(args[0]), SEGMENT_BYTES);
+            for (long i = 0; ; i++) {
+                journal.append(vote(i));
+                if (i % 50 == 49) {
+                    journal.sync();
+                    System.out.println("synced " + (i + 1));
+                    System.out.flush();
+                }
+            }
+        }
+    }
+
+    private void append(VoteJournal journal, long from, long to) throws Exception {
+        long last = -1;
+        for (long i = from; i < to; i++) {
+            last = journal.append(vote(i));
+        }
+        journal.sync();
+        assertThat(journal.awaitSynced(last, Duration.ofSeconds(1))).isTrue();
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith("segment-")).sorted().toList();
+        }
+    }
+
+    private static List<VoteMessage> votes(long from, long to) {
+        return LongStream.range(from, to).mapToObj(VoteJournalTest::vote).toList();
+    }
+
+    private static VoteMessage vote(long i) {
+        return new VoteMessage(i % 7, 10_000_000_000L + i, i % 2 == 0 ? VoteType.YES : VoteType.NO, 1_700_000_000_000L + i);
+    }
+}
@@ -1,31 +1,90 @@
 package com.test.voting.messaging;
 
+import com.test.voting.config.VotePublishProperties;
 import com.test.voting.dto.VoteMessage;
 import com.test.voting.model.enums.VoteType;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpConnectException;
 
-import static org.mockito.Mockito.verify;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class VoteProducerTest {
 
     @Mock
     private VoteRoutingPublisher routingPublisher;
+    @Mock
+    private VoteBatcher voteBatcher;
+    @Mock
+    private VoteSpool voteSpool;
 
-    @InjectMocks
-    private VoteProducer voteProducer;
+    private final VoteMessage message = VoteMessage.builder()
+            .sessionId(1L).cpf(12345678909L).vote(VoteType.YES).build();
 
     @Test
     void shouldDelegateToRoutingPublisher() {
-        VoteMessage message = VoteMessage.builder()
-                .sessionId(1L).cpf("12345678909").vote(VoteType.YES).build();
-
-        voteProducer.sendVote(message);
+        producer(false).sendVote(message);
 
         verify(routingPublisher).publishToMain(message);
+        verifyNoInteractions(voteBatcher);
+    }
+
+    @Test
+    void shouldHandVoteToBatcherWhenBatchingEnabled() {
+        producer(true).sendVote(message);
+
+        verify(voteBatcher).submit(message);
+        verifyNoInteractions(routingPublisher);
+    }
+
+    @Test
+    void shouldPublishBulkVotesAsEnvelopesWhenBatchingEnabled() {
+        producer(true).sendVotes(List.of(message));
+
+        verify(routingPublisher).publishEnvelopesToMain(List.of(message));
+    }
+
+    @Test
+    void shouldSpoolVoteWhenBrokerIsUnreachable() {
+        doThrow(new AmqpConnectException(new IOException("down"))).when(routingPublisher).publishToMain(message);
+        when(voteSpool.isEnabled()).thenReturn(true);
+
+        producer(false).sendVote(message);
+
+        verify(voteSpool).spool(List.of(message));
+    }
+
+    @Test
+    void shouldRethrowWhenSpoolIsDisabled() {
+        doThrow(new AmqpConnectException(new IOException("down"))).when(routingPublisher).publishToMain(message);
+
+        assertThatThrownBy(() -> producer(false).sendVote(message)).isInstanceOf(AmqpConnectException.class);
+        verify(voteSpool, never()).spool(anyList());
+    }
+
+    @Test
+    void shouldQueueBehindSpoolBacklog() {
+        when(voteSpool.hasBacklog()).thenReturn(true);
+
+        producer(false).sendVotes(List.of(message));
+
+        verify(voteSpool).spool(List.of(message));
+        verifyNoInteractions(routingPublisher);
+    }
+
+    private VoteProducer producer(boolean batching) {
+        return new VoteProducer(routingPublisher, voteBatcher, voteSpool, new VotePublishProperties(
+                VotePublishProperties.Durability.ASYNC, Duration.ofSeconds(2),
+                new VotePublishProperties.Batching(batching, 200, Duration.ofNanos(500_000), 100),
+                        VotePublishProperties.WireFormat.BINARY));
     }
 }
@@ -1,16 +1,35 @@
 package com.test.voting.messaging;
 
+import com.test.voting.cache.LiveVoteCounter;
+import com.test.voting.cache.VoteValidationCache;
+import com.test.voting.config.VotePublishProperties;
+import com.test.voting.config.VoteRetryProperties;
+import com.test.voting.config.VoteShardProperties;
+import com.test.voting.dto.VoteBatchMessage;
 import com.test.voting.dto.VoteMessage;
 import com.test.voting.model.enums.VoteType;
+import com.test.voting.repository.DatabaseHealthProbe;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpException;
 import org.springframework.amqp.core.Message;
 import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.ReturnedMessage;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.SimpleMessageConverter;
 
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -19,47 +38,251 @@ class VoteRoutingPublisherTest {
 
     @Mock
     private RabbitTemplate rabbitTemplate;
+    @Mock
+    private VoteValidationCache voteValidationCache;
+    @Mock
+    private LiveVoteCounter liveVoteCounter;
+    @Mock
+    private DatabaseHealthProbe databaseHealthProbe;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
 
-    @InjectMocks
     private VoteRoutingPublisher publisher;
 
+    private final VoteMessage voteMessage = VoteMessage.builder()
+            .sessionId(1L).cpf(12345678909L).vote(VoteType.YES).build();
+
+    @BeforeEach
+    void setUp() {
+        publisher = publisher(VotePublishProperties.Durability.ASYNC);
+    }
+
     @Test
     void shouldPublishToMainQueue() {
-        VoteMessage voteMessage = VoteMessage.builder()
-                .sessionId(1L).cpf("12345678909").vote(VoteType.YES).build();
-
         publisher.publishToMain(voteMessage);
 
         verify(rabbitTemplate).convertAndSend(
-                eq(RabbitNames.EXCHANGE), eq(RabbitNames.RK_CREATE), eq(voteMessage));
+                eq(RabbitNames.EXCHANGE), eq(RabbitNames.RK_CREATE), eq(voteMessage), any(VoteCorrelation.class));
+    }
+
+    @Test
+    void shouldRouteVoteToShardOfItsSession() {
+        publisher = publisher(VotePublishProperties.Durability.ASYNC, 4);
+        VoteMessage sessionSix = VoteMessage.builder().sessionId(6L).cpf(12345678909L).vote(VoteType.YES).build();
+
+        publisher.publishToMain(sessionSix);
+
+        verify(rabbitTemplate).convertAndSend(eq(RabbitNames.EXCHANGE), eq(RabbitNames.shardRoutingKey(2)),
+                eq(sessionSix), any(VoteCorrelation.class));
+    }
+
+    @Test
+    void shouldNotMixShardsInOneEnvelope() {
+        publisher = publisher(VotePublishProperties.Durability.ASYNC, 4);
+        when(rabbitTemplate.invoke(any())).thenAnswer(invocation ->
+                invocation.<RabbitOperations.OperationsCallback<?>>getArgument(0).doInRabbit(rabbitTemplate));
+        VoteMessage sessionTwo = VoteMessage.builder().sessionId(2L).cpf(98765432100L).vote(VoteType.NO).build();
+
+        publisher.publishEnvelopesToMain(List.of(voteMessage, sessionTwo, voteMessage));
+
+        verify(rabbitTemplate).convertAndSend(eq(RabbitNames.EXCHANGE), eq(RabbitNames.shardRoutingKey(1)),
+                eq(new VoteBatchMessage(List.of(voteMessage, voteMessage))), any(VoteCorrelation.class));
+        verify(rabbitTemplate).convertAndSend(eq(RabbitNames.EXCHANGE), eq(RabbitNames.shardRoutingKey(2)),
+                eq(new VoteBatchMessage(List.of(sessionTwo))), any(VoteCorrelation.class));
+    }
+
+    @Test
+    void shouldReleaseReservationUncountVoteAndCountNackInAsyncMode() {
+        VoteCorrelation correlation = new VoteCorrelation(voteMessage);
+
+        publisher.onConfirm(correlation, new CorrelationData.Confirm(false, "queue full"), null);
+
+        verify(voteValidationCache).release(1L, 12345678909L);
+        verify(liveVoteCounter).decrement(1L, VoteType.YES);
+        assertThat(meterRegistry.counter(VoteRoutingPublisher.CONFIRM_METRIC, "outcome", "nack").count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReleaseReservationWhenVoteIsReturned() {
+        VoteCorrelation correlation = new VoteCorrelation(voteMessage);
+        correlation.setReturned(new ReturnedMessage(new Message(new byte[0], new MessageProperties()),
+                312, "NO_ROUTE", RabbitNames.EXCHANGE, RabbitNames.RK_CREATE));
+
+        publisher.onConfirm(correlation, new CorrelationData.Confirm(true, null), null);
+
+        verify(voteValidationCache).release(1L, 12345678909L);
+        verify(liveVoteCounter).decrement(1L, VoteType.YES);
+        assertThat(meterRegistry.counter(VoteRoutingPublisher.CONFIRM_METRIC, "outcome", "returned").count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldOnlyCountAck() {
+        publisher.onConfirm(new VoteCorrelation(voteMessage), new CorrelationData.Confirm(true, null), null);
+
+        verifyNoInteractions(voteValidationCache, liveVoteCounter);
+        assertThat(meterRegistry.counter(VoteRoutingPublisher.CONFIRM_METRIC, "outcome", "ack").count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldWaitForConfirmAndFailOnNackInConfirmedMode() {
+        publisher = publisher(VotePublishProperties.Durability.CONFIRMED);
+        doAnswer(invocation -> {
+            VoteCorrelation correlation = invocation.getArgument(3);
+            correlation.getFuture().complete(new CorrelationData.Confirm(false, "nack"));
+            return null;
+        }).when(rabbitTemplate).convertAndSend(eq(RabbitNames.EXCHANGE), eq(RabbitNames.RK_CREATE),
+                eq(voteMessage), any(VoteCorrelation.class));
+
+        assertThatThrownBy(() -> publisher.publishToMain(voteMessage))
+                .isInstanceOf(AmqpException.class);
+
+        verifyNoInteractions(voteValidationCache, liveVoteCounter);
+    }
+
+    @Test
+    void shouldFailWhenConfirmDoesNotArriveInTime() {
+        publisher = publisher(VotePublishProperties.Durability.CONFIRMED);
+
+        assertThatThrownBy(() -> publisher.publishToMain(voteMessage))
+                .isInstanceOf(AmqpException.class)
+                .hasMessageContaining("Timed out");
+    }
+
+    @Test
+    void shouldReleaseEveryVoteOfRejectedEnvelope() {
+        VoteMessage other = VoteMessage.builder().sessionId(2L).cpf(98765432100L).vote(VoteType.NO).build();
+
+        publisher.onConfirm(new VoteCorrelation(List.of(voteMessage, other)),
+                new CorrelationData.Confirm(false, "queue full"), null);
+
+        verify(voteValidationCache).release(1L, 12345678909L);
+        verify(voteValidationCache).release(2L, 98765432100L);
+    }
+
+    @Test
+    void shouldSplitVotesIntoEnvelopesOfMaxVotes() {
+        when(rabbitTemplate.invoke(any())).thenAnswer(invocation ->
+                invocation.<RabbitOperations.OperationsCallback<?>>getArgument(0).doInRabbit(rabbitTemplate));
+
+        publisher.publishEnvelopesToMain(List.of(voteMessage, voteMessage, voteMessage));
+
+        ArgumentCaptor<Object> payloads = ArgumentCaptor.forClass(Object.class);
+        verify(rabbitTemplate, times(2)).convertAndSend(eq(RabbitNames.EXCHANGE), eq(RabbitNames.RK_CREATE),
+                payloads.capture(), any(VoteCorrelation.class));
+        assertThat(payloads.getAllValues())
+                .extracting(p -> ((VoteBatchMessage) p).getVotes().size())
+                .containsExactly(2, 1);
+    }
+
+    @Test
+    void shouldRouteEachVoteOfFailedEnvelopeSeparately() {
+        when(databaseHealthProbe.isUp()).thenReturn(true);
+        MessageProperties props = new MessageProperties();
+        props.setHeader(RabbitNames.HEADER_RETRY_COUNT, 1);
+        Message envelope = new Message("{}".getBytes(), props);
+        when(rabbitTemplate.getMessageConverter()).thenReturn(new SimpleMessageConverter());
+
+        publisher.routeRetryOrDlq(envelope, List.of(voteMessage, voteMessage), new RuntimeException("DB error"));
+
+        ArgumentCaptor<Message> routed = ArgumentCaptor.forClass(Message.class);
+        verify(rabbitTemplate, times(2)).send(eq(RabbitNames.EXCHANGE), tier(1), routed.capture());
+        assertThat(routed.getAllValues())
+                .allSatisfy(m -> assertThat(m.getMessageProperties().<Integer>getHeader(RabbitNames.HEADER_RETRY_COUNT))
+                        .isEqualTo(2));
     }
 
     @Test
     void shouldRouteToRetryWhenRetryCountBelowMax() {
+        when(databaseHealthProbe.isUp()).thenReturn(true);
         Message message = new Message("test".getBytes(), new MessageProperties());
         Exception ex = new RuntimeException("DB error");
 
         publisher.routeRetryOrDlq(message, ex);
 
-        verify(rabbitTemplate).send(eq(RabbitNames.EXCHANGE), eq(RabbitNames.RK_RETRY), eq(message));
+        verify(rabbitTemplate).send(eq(RabbitNames.EXCHANGE), tier(0), eq(message));
         verify(rabbitTemplate, never()).send(eq(RabbitNames.EXCHANGE), eq(RabbitNames.RK_DLQ), any());
     }
 
+    @Test
+    void shouldClimbLadderWithoutPerMessageExpiration() {
+        when(databaseHealthProbe.isUp()).thenReturn(true);
+        MessageProperties props = new MessageProperties();
+        props.setHeader(RabbitNames.HEADER_RETRY_COUNT, 2);
+        Message message = new Message("test".getBytes(), props);
+
+        publisher.routeRetryOrDlq(message, new RuntimeException("DB error"));
+
+        verify(rabbitTemplate).send(eq(RabbitNames.EXCHANGE), tier(2), eq(message));
+        assertThat(props.getExpiration()).isNull();
+    }
+
+    @Test
+    void shouldParkWithoutSpendingAttemptWhileDatabaseIsDown() {
+        when(databaseHealthProbe.isUp()).thenReturn(false);
+        MessageProperties props = new MessageProperties();
+        props.setHeader(RabbitNames.HEADER_RETRY_COUNT, 1);
+        Message message = new Message("test".getBytes(), props);
+
+        publisher.routeRetryOrDlq(message, new RuntimeException("connection refused"));
+
+        verify(rabbitTemplate).send(eq(RabbitNames.EXCHANGE), tier(3), eq(message));
+        assertThat(props.<Integer>getHeader(RabbitNames.HEADER_RETRY_COUNT)).isEqualTo(1);
+        assertThat(props.<Boolean>getHeader(RabbitNames.HEADER_PARKED)).isTrue();
+    }
+
+    @Test
+    void shouldSpreadParkedVotesAcrossEveryQueueOfTheTier() {
+        when(databaseHealthProbe.isUp()).thenReturn(false);
+
+        for (int i = 0; i < 200; i++) {
+            publisher.routeRetryOrDlq(new Message("test".getBytes(), new MessageProperties()), new RuntimeException("down"));
+        }
+
+        ArgumentCaptor<String> keys = ArgumentCaptor.forClass(String.class);
+        verify(rabbitTemplate, times(200)).send(eq(RabbitNames.EXCHANGE), keys.capture(), any(Message.class));
+        assertThat(keys.getAllValues()).containsOnly(
+                RabbitNames.retryRoutingKey(3, 0), RabbitNames.retryRoutingKey(3, 1), RabbitNames.retryRoutingKey(3, 2),
+                RabbitNames.retryRoutingKey(3, 3), RabbitNames.retryRoutingKey(3, 4));
+    }
+
+    @Test
+    void shouldSpreadTierDelayAcrossPlusMinusJitter() {
+        VoteRetryProperties retry = new VoteRetryProperties(List.of(Duration.ofSeconds(30)), 0.2, 5);
+
+        assertThat(List.of(retry.delayMillis(0, 0), retry.delayMillis(0, 1), retry.delayMillis(0, 2),
+                retry.delayMillis(0, 3), retry.delayMillis(0, 4)))
+                .containsExactly(24_000L, 27_000L, 30_000L, 33_000L, 36_000L);
+    }
+
     @Test
     void shouldRouteToDlqWhenMaxRetriesExceeded() {
+        when(databaseHealthProbe.isUp()).thenReturn(true);
         MessageProperties props = new MessageProperties();
-        props.setHeader(RabbitNames.HEADER_RETRY_COUNT, 3);
+        props.setHeader(RabbitNames.HEADER_RETRY_COUNT, 4);
         Message message = new Message("test".getBytes(), props);
         Exception ex = new RuntimeException("DB error");
 
         publisher.routeRetryOrDlq(message, ex);
 
         verify(rabbitTemplate).send(eq(RabbitNames.EXCHANGE), eq(RabbitNames.RK_DLQ), eq(message));
-        verify(rabbitTemplate, never()).send(eq(RabbitNames.EXCHANGE), eq(RabbitNames.RK_RETRY), any());
+        verify(rabbitTemplate, never()).send(eq(RabbitNames.EXCHANGE), tier(3), any());
+    }
+
+    @Test
+    void shouldSendPoisonStraightToDlqWithErrorHeaders() {
+        Message message = new Message("garbage".getBytes(), new MessageProperties());
+
+        publisher.routeToDlq(message, new IllegalArgumentException("unknown x-vote-format 9"));
+
+        verify(rabbitTemplate).send(RabbitNames.EXCHANGE, RabbitNames.RK_DLQ, message);
+        assertThat(message.getMessageProperties().<String>getHeader(RabbitNames.HEADER_ERROR_TYPE))
+                .isEqualTo("IllegalArgumentException");
+        verifyNoInteractions(databaseHealthProbe);
     }
 
     @Test
     void shouldIncrementRetryCountOnEachRetry() {
+        when(databaseHealthProbe.isUp()).thenReturn(true);
         Message message = new Message("test".getBytes(), new MessageProperties());
         Exception ex = new RuntimeException("error");
 
@@ -71,6 +294,7 @@ class VoteRoutingPublisherTest {
 
     @Test
     void shouldAddErrorHeadersOnRetry() {
+        when(databaseHealthProbe.isUp()).thenReturn(true);
         Message message = new Message("test".getBytes(), new MessageProperties());
         RuntimeException ex = new RuntimeException("connection lost");
 
@@ -80,6 +304,25 @@ class VoteRoutingPublisherTest {
         assertErrorHeaders(props, "RuntimeException", "connection lost");
     }
 
+    private VoteRoutingPublisher publisher(VotePublishProperties.Durability durability) {
+        return publisher(durability, 0);
+    }
+
+    private VoteRoutingPublisher publisher(VotePublishProperties.Durability durability, int shards) {
+        return new VoteRoutingPublisher(rabbitTemplate, voteValidationCache, liveVoteCounter, meterRegistry,
+                new VotePublishProperties(durability, Duration.ofMillis(50),
+                        new VotePublishProperties.Batching(true, 2, Duration.ofNanos(500_000), 100),
+                        VotePublishProperties.WireFormat.BINARY),
+                new VoteShardProperties(shards, 1),
+                new VoteRetryProperties(List.of(Duration.ofSeconds(1), Duration.ofSeconds(5),
+                        Duration.ofSeconds(30), Duration.ofMinutes(2)), 0.2, 5),
+                databaseHealthProbe);
+    }
+
+    private static String tier(int tier) {
+        return argThat(key -> key.startsWith(RabbitNames.RK_RETRY_TIER + tier + "."));
+    }
+
     private void assertRetryCount(Integer actual, int expected) {
         assert actual != null && actual == expected :
                 "Expected retry count " + expected + " but was " + actual;
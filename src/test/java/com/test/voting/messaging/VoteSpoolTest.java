@@ -0,0 +1,102 @@
+package com.test.voting.messaging;
+
+import com.test.voting.config.VoteSpoolProperties;
+import com.test.voting.dto.VoteMessage;
+import com.test.voting.model.enums.VoteType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpException;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VoteSpoolTest {
+
+    @Mock
+    private VoteRoutingPublisher routingPublisher;
+
+    @TempDir
+    Path directory;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private VoteJournal journal;
+    private VoteSpool spool;
+
+    private final VoteMessage first = new VoteMessage(1L, 12345678909L, VoteType.YES, 1_700_000_000_000L);
+    private final VoteMessage second = new VoteMessage(2L, 98765432100L, VoteType.NO, 1_700_000_000_001L);
+
+    @BeforeEach
+    void setUp() throws Exception {
+        journal = VoteJournal.open(directory, 1 << 16);
+        spool = new VoteSpool(routingPublisher, meterRegistry, new VoteSpoolProperties(
+                true, directory.toString(), 1 << 16, Duration.ofMillis(2), Duration.ofMillis(50), 500, Duration.ofSeconds(1)));
+        spool.open(journal);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        journal.close();
+    }
+
+    @Test
+    void shouldForwardSpooledVotesInOrderAndMoveCheckpoint() throws Exception {
+        journal.append(first);
+        journal.append(second);
+        journal.sync();
+
+        assertThat(spool.hasBacklog()).isTrue();
+        assertThat(spool.drain()).isTrue();
+
+        verify(routingPublisher).publishDurably(List.of(first, second));
+        assertThat(spool.hasBacklog()).isFalse();
+        assertThat(spool.drain()).isFalse();
+    }
+
+    @Test
+    void shouldKeepVotesWhenBrokerIsStillDown() throws Exception {
+        journal.append(first);
+        journal.sync();
+        doThrow(new AmqpException("down")).doNothing().when(routingPublisher).publishDurably(List.of(first));
+
+        assertThatThrownBy(() -> spool.drain()).isInstanceOf(AmqpException.class);
+        assertThat(spool.hasBacklog()).isTrue();
+
+        spool.drain();
+        verify(routingPublisher, times(2)).publishDurably(List.of(first));
+        assertThat(spool.hasBacklog()).isFalse();
+    }
+
+    @Test
+    void shouldAcceptVoteWhenSyncIsSlow() throws Exception {
+        // No sync thread running: the vote is in the journal but not on disk when syncTimeout runs out.
+        spool.spool(List.of(first));
+
+        assertThat(meterRegistry.counter(VoteSpool.SLOW_SYNC_METRIC).count()).isEqualTo(1);
+        assertThat(spool.hasBacklog()).isTrue();
+
+        journal.sync();
+        spool.drain();
+        verify(routingPublisher).publishDurably(List.of(first));
+    }
+
+    @Test
+    void shouldFailWhenSpoolIsDisabled() {
+        VoteSpool disabled = new VoteSpool(routingPublisher, meterRegistry, new VoteSpoolProperties(
+                false, directory.toString(), 1 << 16, Duration.ofMillis(2), Duration.ofMillis(50), 500, Duration.ofSeconds(1)));
+
+        assertThatThrownBy(() -> disabled.spool(List.of(first))).isInstanceOf(AmqpException.class);
+    }
+}
@@ -0,0 +1,57 @@
+package com.test.voting.messaging;
+
+import com.test.voting.dto.VoteMessage;
+import com.test.voting.model.enums.VoteType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.JacksonJsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares bytes per vote and decode time per vote for the binary format against Jackson JSON.
+ * Wall-clock loop with warm-up, good enough to compare the two on the same machine:
+ * {@code mvn test -Dtest=VoteWireFormatBenchmarkTest -Dbenchmark.wire=true}
+ */
+@EnabledIfSystemProperty(named = "benchmark.wire", matches = "true")
+class VoteWireFormatBenchmarkTest {
+
+    private static final int WARMUP = 200_000;
+    private static final int ITERATIONS = 1_000_000;
+
+    private final VoteMessage vote = new VoteMessage(123_456L, 12345678909L, VoteType.YES, System.currentTimeMillis());
+
+    @Test
+    void compareBytesAndDecodeTimePerVote() {
+        JacksonJsonMessageConverter json = new JacksonJsonMessageConverter();
+        VoteBinaryMessageConverter binary = new VoteBinaryMessageConverter(json, true);
+
+        Message jsonMessage = json.toMessage(vote, new MessageProperties());
+        Message binaryMessage = binary.toMessage(vote, new MessageProperties());
+
+        double jsonNanos = decodeNanosPerVote(json, jsonMessage);
+        double binaryNanos = decodeNanosPerVote(binary, binaryMessage);
+
+        System.out.printf("Per vote: JSON = %d bytes / %.0f ns decode, binary = %d bytes / %.0f ns decode%n",
+                jsonMessage.getBody().length, jsonNanos, binaryMessage.getBody().length, binaryNanos);
+
+        assertThat(binaryMessage.getBody().length).isLessThan(jsonMessage.getBody().length);
+    }
+
+    private double decodeNanosPerVote(MessageConverter converter, Message message) {
+        Object sink = null;
+        for (int i = 0; i < WARMUP; i++) {
+            sink = converter.fromMessage(message);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink = converter.fromMessage(message);
+        }
+        long elapsed = System.nanoTime() - start;
+        assertThat(sink).isEqualTo(vote);
+        return (double) elapsed / ITERATIONS;
+    }
+}
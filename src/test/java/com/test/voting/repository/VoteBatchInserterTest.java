@@ -0,0 +1,91 @@
+package com.test.voting.repository;
+
+import com.test.voting.config.VoteIngestProperties;
+import com.test.voting.dto.BatchInsertResult;
+import com.test.voting.dto.TallyDelta;
+import com.test.voting.dto.VoteMessage;
+import com.test.voting.model.enums.VoteType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.IncorrectUpdateSemanticsDataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Statement;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VoteBatchInserterTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private VoteCopyInserter voteCopyInserter;
+    @Mock
+    private VoteUnnestInserter voteUnnestInserter;
+    @Mock
+    private SessionTallyRepository sessionTallyRepository;
+
+    private VoteBatchInserter voteBatchInserter;
+
+    @BeforeEach
+    void setUp() {
+        voteBatchInserter = new VoteBatchInserter(jdbcTemplate, voteCopyInserter, voteUnnestInserter,
+                new VoteIngestProperties(VoteIngestProperties.Mode.BATCH, 50), sessionTallyRepository);
+    }
+
+    @Test
+    void shouldTallyOnlyInsertedRowsPerSession() {
+        List<VoteMessage> votes = List.of(
+                vote(2L, 11L, VoteType.YES),
+                vote(1L, 12L, VoteType.NO),
+                vote(1L, 13L, VoteType.YES),
+                vote(1L, 14L, VoteType.YES));
+        when(jdbcTemplate.batchUpdate(anyString(), any(BatchPreparedStatementSetter.class)))
+                .thenReturn(new int[]{1, 1, 0, 1});
+
+        BatchInsertResult result = voteBatchInserter.insertBatch(votes);
+
+        assertThat(result.inserted()).isEqualTo(3);
+        assertThat(result.duplicates()).isEqualTo(1);
+        assertThat(result.tallies()).containsExactly(
+                new TallyDelta(1L, 1, 1),
+                new TallyDelta(2L, 1, 0));
+        verify(sessionTallyRepository).applyDeltas(result.tallies());
+    }
+
+    @Test
+    void shouldNotTouchTallyWhenAllRowsAreDuplicates() {
+        when(jdbcTemplate.batchUpdate(anyString(), any(BatchPreparedStatementSetter.class)))
+                .thenReturn(new int[]{0});
+
+        BatchInsertResult result = voteBatchInserter.insertBatch(List.of(vote(1L, 11L, VoteType.YES)));
+
+        assertThat(result.inserted()).isZero();
+        assertThat(result.tallies()).isEmpty();
+    }
+
+    @Test
+    void shouldRefuseBatchWhenDriverHidesPerRowCounts() {
+        when(jdbcTemplate.batchUpdate(anyString(), any(BatchPreparedStatementSetter.class)))
+                .thenReturn(new int[]{1, Statement.SUCCESS_NO_INFO});
+
+        assertThatThrownBy(() -> voteBatchInserter.insertBatch(
+                List.of(vote(1L, 11L, VoteType.YES), vote(1L, 12L, VoteType.NO))))
+                .isInstanceOf(IncorrectUpdateSemanticsDataAccessException.class);
+
+        verifyNoInteractions(sessionTallyRepository);
+    }
+
+    private VoteMessage vote(Long sessionId, long cpf, VoteType type) {
+        return VoteMessage.builder().sessionId(sessionId).cpf(cpf).vote(type).build();
+    }
+}
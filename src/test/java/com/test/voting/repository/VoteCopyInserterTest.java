@@ -0,0 +1,54 @@
+package com.test.voting.repository;
+
+import com.test.voting.dto.VoteMessage;
+import com.test.voting.model.enums.VoteType;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VoteCopyInserterTest {
+
+    private static final int HEADER_BYTES = 19;
+
+    @Test
+    void shouldEncodeBatchInPostgresBinaryCopyFormat() {
+        List<VoteMessage> votes = List.of(
+                VoteMessage.builder().sessionId(1L).cpf(12345678909L).vote(VoteType.YES).build(),
+                VoteMessage.builder().sessionId(2L).cpf(1582728119L).vote(VoteType.NO).build());
+
+        ByteBuffer buffer = ByteBuffer.wrap(VoteCopyInserter.encode(votes));
+
+        byte[] signature = new byte[11];
+        buffer.get(signature);
+        assertThat(signature).isEqualTo(new byte[]{'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0});
+        assertThat(buffer.getInt()).isZero();
+        assertThat(buffer.getInt()).isZero();
+        assertThat(buffer.position()).isEqualTo(HEADER_BYTES);
+
+        assertRow(buffer, 1L, 12345678909L, VoteType.YES.getCode());
+        assertRow(buffer, 2L, 1582728119L, VoteType.NO.getCode());
+
+        assertThat(buffer.getShort()).isEqualTo((short) -1);
+        assertThat(buffer.hasRemaining()).isFalse();
+    }
+
+    @Test
+    void shouldEncodeEmptyBatchAsHeaderAndTrailer() {
+        byte[] payload = VoteCopyInserter.encode(List.of());
+
+        assertThat(payload).hasSize(HEADER_BYTES + 2);
+    }
+
+    private void assertRow(ByteBuffer buffer, long sessionId, long cpf, int vote) {
+        assertThat(buffer.getShort()).isEqualTo((short) 3);
+        assertThat(buffer.getInt()).isEqualTo(Long.BYTES);
+        assertThat(buffer.getLong()).isEqualTo(sessionId);
+        assertThat(buffer.getInt()).isEqualTo(Long.BYTES);
+        assertThat(buffer.getLong()).isEqualTo(cpf);
+        assertThat(buffer.getInt()).isEqualTo(Integer.BYTES);
+        assertThat(buffer.getInt()).isEqualTo(vote);
+    }
+}
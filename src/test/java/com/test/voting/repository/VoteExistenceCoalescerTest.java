@@ -0,0 +1,91 @@
+package com.test.voting.repository;
+
+import com.test.voting.config.VoteDedupProperties;
+import com.test.voting.repository.VoteExistenceCoalescer.VoteKey;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VoteExistenceCoalescerTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private ResultSet resultSet;
+
+    private VoteExistenceCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        coalescer = new VoteExistenceCoalescer(jdbcTemplate, new VoteDedupProperties(
+                Duration.ofMillis(5), 512, Duration.ofSeconds(2), Duration.ofHours(1), 1000));
+    }
+
+    @Test
+    void shouldCheckAllPairsInOneQueryPaddedToPowerOfTwo() throws Exception {
+        when(resultSet.getLong("session_id")).thenReturn(1L);
+        when(resultSet.getLong("cd_cpf")).thenReturn(12L);
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        doAnswer(invocation -> {
+            invocation.<RowCallbackHandler>getArgument(1).processRow(resultSet);
+            return null;
+        }).when(jdbcTemplate).query(sql.capture(), any(RowCallbackHandler.class), args.capture());
+
+        var existing = coalescer.findExisting(List.of(key(11), key(12), key(12), key(13)));
+
+        assertThat(existing).containsExactly(key(12));
+        assertThat(sql.getValue()).contains("IN ((?, ?), (?, ?), (?, ?), (?, ?))");
+        assertThat(args.getValue()).containsExactly(1L, 11L, 1L, 12L, 1L, 13L, 1L, 13L);
+    }
+
+    @Test
+    void shouldAnswerEveryWaitingCheckFromOneQuery() throws Exception {
+        when(resultSet.getLong("session_id")).thenReturn(1L);
+        when(resultSet.getLong("cd_cpf")).thenReturn(11L);
+        doAnswer(invocation -> {
+            invocation.<RowCallbackHandler>getArgument(1).processRow(resultSet);
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+        VoteExistenceCoalescer.Check voted = new VoteExistenceCoalescer.Check(key(11), new CompletableFuture<>());
+        VoteExistenceCoalescer.Check fresh = new VoteExistenceCoalescer.Check(key(12), new CompletableFuture<>());
+
+        coalescer.resolve(List.of(voted, fresh));
+
+        assertThat(voted.result()).isCompletedWithValue(true);
+        assertThat(fresh.result()).isCompletedWithValue(false);
+        verify(jdbcTemplate, times(1)).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+    }
+
+    @Test
+    void shouldFailEveryWaitingCheckWhenQueryFails() {
+        doThrow(new DataAccessResourceFailureException("down"))
+                .when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+        VoteExistenceCoalescer.Check check = new VoteExistenceCoalescer.Check(key(11), new CompletableFuture<>());
+
+        coalescer.resolve(List.of(check));
+
+        assertThat(check.result()).isCompletedExceptionally();
+    }
+
+    private static VoteKey key(long cpf) {
+        return new VoteKey(1L, cpf);
+    }
+}
@@ -0,0 +1,59 @@
+package com.test.voting.repository;
+
+import com.test.voting.config.VotePartitionProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VotePartitionManagerTest {
+
+    private static final String ENSURE = "SELECT ensure_vote_partition(?, ?)";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private VotePartitionManager partitionManager;
+
+    @BeforeEach
+    void setUp() {
+        partitionManager = new VotePartitionManager(jdbcTemplate, new VotePartitionProperties(100, 2));
+    }
+
+    @Test
+    void shouldEnsurePartitionWithConfiguredBlockSize() {
+        when(jdbcTemplate.queryForObject(ENSURE, String.class, 250L, 100L))
+                .thenReturn("vote_p2");
+
+        assertThat(partitionManager.ensurePartition(250L)).isEqualTo("vote_p2");
+    }
+
+    @Test
+    void shouldPrecreatePartitionsAheadOfNewestSession() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(250L);
+
+        partitionManager.precreate();
+
+        verify(jdbcTemplate).queryForObject(ENSURE, String.class, 200L, 100L);
+        verify(jdbcTemplate).queryForObject(ENSURE, String.class, 300L, 100L);
+        verify(jdbcTemplate).queryForObject(ENSURE, String.class, 400L, 100L);
+        verify(jdbcTemplate, times(3)).queryForObject(eq(ENSURE), eq(String.class), any(Object[].class));
+    }
+
+    @Test
+    void shouldPrecreateFirstBlocksOnEmptyDatabase() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(0L);
+
+        partitionManager.precreate();
+
+        verify(jdbcTemplate).queryForObject(ENSURE, String.class, 0L, 100L);
+        verify(jdbcTemplate).queryForObject(ENSURE, String.class, 200L, 100L);
+    }
+}
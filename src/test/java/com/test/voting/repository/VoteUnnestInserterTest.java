@@ -0,0 +1,29 @@
+package com.test.voting.repository;
+
+import com.test.voting.dto.VoteMessage;
+import com.test.voting.model.enums.VoteType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VoteUnnestInserterTest {
+
+    @Test
+    void shouldOrderVotesBySessionThenCpf() {
+        VoteMessage a = vote(2L, 100L);
+        VoteMessage b = vote(1L, 300L);
+        VoteMessage c = vote(1L, 200L);
+
+        List<VoteMessage> sorted = List.of(a, b, c).stream()
+                .sorted(VoteUnnestInserter.KEY_ORDER)
+                .toList();
+
+        assertThat(sorted).containsExactly(c, b, a);
+    }
+
+    private VoteMessage vote(Long sessionId, long cpf) {
+        return VoteMessage.builder().sessionId(sessionId).cpf(cpf).vote(VoteType.YES).build();
+    }
+}
@@ -1,5 +1,7 @@
 package com.test.voting.scheduler;
 
+import com.test.voting.cache.LiveVoteCounter;
+import com.test.voting.cache.SessionValidationCache;
 import com.test.voting.model.Session;
 import com.test.voting.model.enums.SessionStatus;
 import com.test.voting.repository.SessionRepository;
@@ -12,6 +14,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.quartz.*;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -24,6 +27,10 @@ class CloseSessionJobTest {
     @Mock
     private SessionRepository sessionRepository;
     @Mock
+    private SessionValidationCache sessionValidationCache;
+    @Mock
+    private LiveVoteCounter liveVoteCounter;
+    @Mock
     private JobExecutionContext context;
     @Mock
     private JobDetail jobDetail;
@@ -66,6 +73,8 @@ class CloseSessionJobTest {
 
         verify(sessionRepository).findById(1L);
         verifyNoMoreInteractions(sessionRepository);
+        verify(sessionValidationCache).put(session);
+        verify(liveVoteCounter).retire(List.of(1L));
     }
 
     @Test
@@ -84,6 +93,7 @@ class CloseSessionJobTest {
         verify(sessionRepository, never()).save(any());
         verify(sessionRepository).findById(1L);
         verifyNoMoreInteractions(sessionRepository);
+        verifyNoInteractions(sessionValidationCache, liveVoteCounter);
 
         assertThat(session.getStatus()).isEqualTo(SessionStatus.CLOSE);
     }
@@ -0,0 +1,88 @@
+package com.test.voting.scheduler;
+
+import com.test.voting.cache.LiveVoteCounter;
+import com.test.voting.cache.SessionValidationCache;
+import com.test.voting.config.SessionExpiryProperties;
+import com.test.voting.model.Session;
+import com.test.voting.model.enums.SessionStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SessionExpirySweeperTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private SessionValidationCache sessionValidationCache;
+    @Mock
+    private LiveVoteCounter liveVoteCounter;
+
+    private final Clock clock = Clock.fixed(Instant.parse("2026-01-01T12:00:00Z"), ZoneId.of("UTC"));
+
+    private SessionExpirySweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        sweeper = new SessionExpirySweeper(jdbcTemplate, transactionTemplate, sessionValidationCache, liveVoteCounter,
+                new SessionExpiryProperties(1000, 2), clock);
+    }
+
+    @Test
+    void shouldSkipWhenAnotherNodeHoldsTheLock() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class))).thenReturn(false);
+
+        assertThat(sweeper.closeDueBatch()).isZero();
+
+        verify(jdbcTemplate, never()).query(anyString(), any(RowMapper.class), any(Object[].class));
+        verifyNoInteractions(sessionValidationCache, liveVoteCounter);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldCloseDueSessionsAndWriteThroughCaches() {
+        Session closed = Session.builder().id(7L).status(SessionStatus.CLOSE)
+                .expirationTime(LocalDateTime.of(2026, 1, 1, 11, 59)).build();
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class))).thenReturn(true);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class))).thenReturn(List.of(closed));
+
+        assertThat(sweeper.closeDueBatch()).isEqualTo(1);
+
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate).query(contains("FOR UPDATE SKIP LOCKED"), any(RowMapper.class), args.capture());
+        assertThat(args.getValue()).containsExactly(SessionStatus.CLOSE.getCode(), SessionStatus.OPEN.getCode(),
+                LocalDateTime.of(2026, 1, 1, 12, 0), 2);
+        verify(sessionValidationCache).putAll(List.of(closed));
+        verify(liveVoteCounter).retire(List.of(7L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldKeepSweepingWhileBatchesAreFull() {
+        when(transactionTemplate.execute(any(TransactionCallback.class))).thenReturn(2, 2, 1);
+
+        sweeper.sweep();
+
+        verify(transactionTemplate, times(3)).execute(any(TransactionCallback.class));
+    }
+}
@@ -0,0 +1,173 @@
+package com.test.voting.service;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.Consumer;
+import com.rabbitmq.client.Envelope;
+import com.test.voting.config.VoteDlqProperties;
+import com.test.voting.dto.DlqReplayRequest;
+import com.test.voting.dto.DlqReplayStatus;
+import com.test.voting.dto.VoteMessage;
+import com.test.voting.messaging.RabbitNames;
+import com.test.voting.model.enums.VoteType;
+import com.test.voting.repository.VoteBatchInserter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.rabbit.core.ChannelCallback;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DlqReplayServiceTest {
+
+    private static final String TRANSIENT = "CannotCreateTransactionException";
+    private static final String INTEGRITY = "DataIntegrityViolationException";
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+    @Mock
+    private MessageConverter jsonMessageConverter;
+    @Mock
+    private VoteBatchInserter voteBatchInserter;
+    @Mock
+    private Channel channel;
+
+    private DlqReplayService service;
+    private int batchSize = 1000;
+
+    private final VoteMessage vote = VoteMessage.builder().sessionId(1L).cpf(12345678909L).vote(VoteType.YES).build();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(rabbitTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<ChannelCallback<?>>getArgument(0).doInRabbit(channel));
+    }
+
+    @Test
+    void shouldReplayRecoverableVotesAndKeepTheRest() throws Exception {
+        dlq(TRANSIENT, INTEGRITY, TRANSIENT);
+        when(jsonMessageConverter.fromMessage(any())).thenReturn(vote);
+
+        DlqReplayStatus status = run(new DlqReplayRequest(false, 0, 0, null));
+
+        verify(channel).basicQos(1000);
+        verify(voteBatchInserter).insertBatch(List.of(vote, vote));
+        verify(channel).basicAck(1L, false);
+        verify(channel).basicAck(3L, false);
+        InOrder kept = inOrder(channel);
+        kept.verify(channel).basicPublish(eq(""), eq(RabbitNames.QUEUE_DLQ), any(), any());
+        kept.verify(channel).waitForConfirmsOrDie(anyLong());
+        kept.verify(channel).basicAck(2L, false);
+        assertThat(status.state()).isEqualTo(DlqReplayStatus.State.COMPLETED);
+        assertThat(status.replayedMessages()).isEqualTo(2);
+        assertThat(status.kept()).isEqualTo(1);
+        assertThat(status.byErrorType()).isEqualTo(Map.of(TRANSIENT, 2L, INTEGRITY, 1L));
+    }
+
+    @Test
+    void shouldSettleEachChunkBeforeTakingTheNext() throws Exception {
+        batchSize = 2;
+        dlq(TRANSIENT, TRANSIENT, TRANSIENT);
+        when(jsonMessageConverter.fromMessage(any())).thenReturn(vote);
+
+        DlqReplayStatus status = run(new DlqReplayRequest(false, 0, 0, null));
+
+        InOrder chunks = inOrder(voteBatchInserter, channel);
+        chunks.verify(voteBatchInserter).insertBatch(List.of(vote, vote));
+        chunks.verify(channel).basicAck(2L, false);
+        chunks.verify(voteBatchInserter).insertBatch(List.of(vote));
+        chunks.verify(channel).basicAck(3L, false);
+        verify(channel).basicQos(2);
+        assertThat(status.replayedMessages()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldOnlyCountAndRequeueOnDryRun() throws Exception {
+        dlq(TRANSIENT, INTEGRITY);
+
+        DlqReplayStatus status = run(new DlqReplayRequest(true, 0, 0, null));
+
+        verifyNoInteractions(voteBatchInserter);
+        verify(channel).basicQos(0);
+        verify(channel, never()).basicPublish(any(), any(), any(), any());
+        verify(channel, never()).basicAck(anyLong(), anyBoolean());
+        verify(channel).basicNack(0L, true, true);
+        assertThat(status.scanned()).isEqualTo(2);
+        assertThat(status.byErrorType()).isEqualTo(Map.of(TRANSIENT, 1L, INTEGRITY, 1L));
+    }
+
+    @Test
+    void shouldStopAndRequeueWhenDatabaseIsStillDown() throws Exception {
+        dlq(TRANSIENT, TRANSIENT);
+        when(jsonMessageConverter.fromMessage(any())).thenReturn(vote);
+        when(voteBatchInserter.insertBatch(anyList())).thenThrow(new CannotCreateTransactionException("down"));
+
+        DlqReplayStatus status = run(new DlqReplayRequest(false, 0, 0, null));
+
+        verify(voteBatchInserter, times(1)).insertBatch(anyList());
+        verify(channel).basicNack(0L, true, true);
+        verify(channel, never()).basicPublish(any(), any(), any(), any());
+        verify(channel, never()).basicAck(anyLong(), anyBoolean());
+        assertThat(status.state()).isEqualTo(DlqReplayStatus.State.FAILED);
+        assertThat(status.replayedMessages()).isZero();
+    }
+
+    @Test
+    void shouldStopAtMaxMessagesAndRequeueThePrefetchedRest() throws Exception {
+        dlq(TRANSIENT, TRANSIENT, TRANSIENT);
+
+        when(jsonMessageConverter.fromMessage(any())).thenReturn(vote);
+
+        DlqReplayStatus status = run(new DlqReplayRequest(false, 1, 0, null));
+
+        verify(voteBatchInserter).insertBatch(List.of(vote));
+        verify(channel).basicAck(1L, false);
+        verify(channel, never()).basicAck(2L, false);
+        verify(channel, never()).basicAck(3L, false);
+        InOrder stop = inOrder(channel);
+        stop.verify(channel).basicCancel(any());
+        stop.verify(channel).basicNack(0L, true, true);
+        assertThat(status.target()).isEqualTo(1);
+        assertThat(status.scanned()).isEqualTo(1);
+    }
+
+    private DlqReplayStatus run(DlqReplayRequest request) {
+        service = new DlqReplayService(rabbitTemplate, jsonMessageConverter, voteBatchInserter,
+                new SimpleMeterRegistry(), new VoteDlqProperties(batchSize, Set.of(TRANSIENT)));
+        DlqReplayService.ReplayRun run = service.new ReplayRun(request);
+        service.replay(run);
+        return run.snapshot();
+    }
+
+    // The broker pushes the whole DLQ as soon as the replay subscribes.
+    private void dlq(String... errorTypes) throws Exception {
+        when(channel.messageCount(RabbitNames.QUEUE_DLQ)).thenReturn((long) errorTypes.length);
+        when(channel.basicConsume(eq(RabbitNames.QUEUE_DLQ), eq(false), any(Consumer.class))).thenAnswer(invocation -> {
+            Consumer consumer = invocation.getArgument(2);
+            for (int i = 0; i < errorTypes.length; i++) {
+                AMQP.BasicProperties props = new AMQP.BasicProperties.Builder()
+                        .headers(Map.of(RabbitNames.HEADER_ERROR_TYPE, errorTypes[i]))
+                        .build();
+                consumer.handleDelivery("replay", new Envelope(i + 1, false, RabbitNames.EXCHANGE, RabbitNames.RK_DLQ),
+                        props, new byte[0]);
+            }
+            return "replay";
+        });
+    }
+}
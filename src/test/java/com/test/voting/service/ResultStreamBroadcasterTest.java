@@ -0,0 +1,120 @@
+package com.test.voting.service;
+
+import com.test.voting.dto.ResultResponse;
+import com.test.voting.model.enums.SessionStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ResultStreamBroadcasterTest {
+
+    @Mock
+    private SessionService sessionService;
+
+    private ResultStreamBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        broadcaster = new ResultStreamBroadcaster(sessionService, JsonMapper.builder().build(), 60_000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.shutdown();
+    }
+
+    @Test
+    void shouldComputeOneSnapshotPerSessionForAllSubscribers() {
+        when(sessionService.getResult(1L, true)).thenReturn(result(SessionStatus.OPEN));
+
+        broadcaster.subscribe(1L);
+        broadcaster.subscribe(1L);
+        broadcaster.subscribe(1L);
+        broadcaster.broadcast();
+
+        verify(sessionService, times(1)).getResult(1L, true);
+        assertThat(broadcaster.subscriberCount(1L)).isEqualTo(3);
+    }
+
+    @Test
+    void shouldDropSubscribersAfterFinalEventWhenSessionCloses() {
+        when(sessionService.getResult(1L, true)).thenReturn(result(SessionStatus.CLOSE));
+
+        broadcaster.subscribe(1L);
+        broadcaster.broadcast();
+        broadcaster.broadcast();
+
+        verify(sessionService, times(1)).getResult(1L, true);
+        assertThat(broadcaster.subscriberCount(1L)).isZero();
+    }
+
+    @Test
+    void shouldNotComputeWithoutSubscribers() {
+        broadcaster.broadcast();
+
+        verifyNoInteractions(sessionService);
+    }
+
+    @Test
+    void shouldSendFramesToOneSubscriberInOrderKeepingTheFinalOne() throws Exception {
+        CountDownLatch firstSendStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch completed = new CountDownLatch(1);
+        List<String> sent = new CopyOnWriteArrayList<>();
+        SseEmitter emitter = new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) {
+                if (sent.isEmpty()) {
+                    firstSendStarted.countDown();
+                    awaitQuietly(release);
+                }
+                sent.add(builder.build().stream().map(d -> String.valueOf(d.getData())).collect(Collectors.joining()));
+            }
+
+            @Override
+            public void complete() {
+                completed.countDown();
+            }
+        };
+        ResultStreamBroadcaster.Subscriber subscriber = new ResultStreamBroadcaster.Subscriber(emitter);
+
+        broadcaster.send(subscriber, new ResultStreamBroadcaster.Frame("result", "tick-1", false));
+        assertThat(firstSendStarted.await(1, TimeUnit.SECONDS)).isTrue();
+        broadcaster.send(subscriber, new ResultStreamBroadcaster.Frame("result", "tick-2", false));
+        broadcaster.send(subscriber, new ResultStreamBroadcaster.Frame("final", "tick-3", true));
+        broadcaster.send(subscriber, new ResultStreamBroadcaster.Frame("result", "tick-2", false));
+        release.countDown();
+
+        assertThat(completed.await(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(sent).hasSize(2);
+        assertThat(sent.get(0)).contains("event:result").contains("tick-1");
+        assertThat(sent.get(1)).contains("event:final").contains("tick-3");
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private ResultResponse result(SessionStatus status) {
+        return new ResultResponse(1L, new ResultResponse.VoteCount(2L, 1L, 3L), status);
+    }
+}
@@ -1,5 +1,8 @@
 package com.test.voting.service;
 
+import com.test.voting.cache.LiveVoteCounter;
+import com.test.voting.cache.SessionValidationCache;
+import com.test.voting.dto.ResultReconciliation;
 import com.test.voting.dto.ResultResponse;
 import com.test.voting.dto.SessionRequest;
 import com.test.voting.dto.SessionResponse;
@@ -8,8 +11,9 @@ import com.test.voting.mapper.SessionMapper;
 import com.test.voting.model.Session;
 import com.test.voting.model.enums.SessionStatus;
 import com.test.voting.repository.SessionRepository;
+import com.test.voting.repository.SessionTallyRepository;
+import com.test.voting.repository.VotePartitionManager;
 import com.test.voting.repository.VoteRepository;
-import com.test.voting.scheduler.SessionSchedulerService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InOrder;
@@ -33,9 +37,15 @@ class SessionServiceTest {
     @Mock
     private SessionMapper sessionMapper;
     @Mock
-    private SessionSchedulerService sessionSchedulerService;
+    private SessionTallyRepository sessionTallyRepository;
+    @Mock
+    private VotePartitionManager votePartitionManager;
     @Mock
     private VoteRepository voteRepository;
+    @Mock
+    private LiveVoteCounter liveVoteCounter;
+    @Mock
+    private SessionValidationCache sessionValidationCache;
 
     @InjectMocks
     private SessionService sessionService;
@@ -66,18 +76,19 @@ class SessionServiceTest {
 
         assertThat(result).isEqualTo(expected);
 
-        InOrder inOrder = inOrder(sessionMapper, sessionRepository, sessionSchedulerService);
+        InOrder inOrder = inOrder(sessionMapper, sessionRepository, votePartitionManager, sessionValidationCache);
 
         inOrder.verify(sessionMapper).toEntity(request);
         inOrder.verify(sessionRepository).save(mappedEntity);
-        inOrder.verify(sessionSchedulerService).scheduleSessionClosure(savedEntity);
+        inOrder.verify(votePartitionManager).ensurePartition(1L);
+        inOrder.verify(sessionValidationCache).put(savedEntity);
         inOrder.verify(sessionMapper).toResponse(savedEntity);
 
-        verifyNoMoreInteractions(sessionMapper, sessionRepository, sessionSchedulerService);
+        verifyNoMoreInteractions(sessionMapper, sessionRepository, sessionValidationCache);
     }
 
     @Test
-    void shouldNotScheduleWhenSaveFails() {
+    void shouldNotCacheWhenSaveFails() {
         SessionRequest request = new SessionRequest(SESSION_DESCRIPTION, 5);
         Session mappedEntity = Session.builder().description(SESSION_DESCRIPTION).build();
 
@@ -87,8 +98,9 @@ class SessionServiceTest {
         assertThatThrownBy(() -> sessionService.create(request))
                 .isInstanceOf(RuntimeException.class);
 
-        verify(sessionSchedulerService, never()).scheduleSessionClosure(any());
+        verifyNoInteractions(sessionValidationCache);
         verify(sessionMapper, never()).toResponse(any());
+        verifyNoInteractions(votePartitionManager);
     }
 
     @Test
@@ -123,7 +135,7 @@ class SessionServiceTest {
                 .build();
 
         when(sessionRepository.findById(1L)).thenReturn(Optional.of(session));
-        when(voteRepository.countVotesBySessionId(1L))
+        when(sessionTallyRepository.find(1L))
                 .thenReturn(new ResultResponse.VoteCount(10L, 5L, 15L));
 
         ResultResponse result = sessionService.getResult(1L);
@@ -143,7 +155,7 @@ class SessionServiceTest {
                 .build();
 
         when(sessionRepository.findById(1L)).thenReturn(Optional.of(session));
-        when(voteRepository.countVotesBySessionId(1L))
+        when(sessionTallyRepository.find(1L))
                 .thenReturn(new ResultResponse.VoteCount(0L, 0L, 0L));
 
         ResultResponse result = sessionService.getResult(1L);
@@ -151,4 +163,59 @@ class SessionServiceTest {
         assertThat(result.sessionId()).isEqualTo(1L);
         assertThat(result.sessionStatus()).isEqualTo(SessionStatus.CLOSE);
     }
+
+    @Test
+    void shouldServeLiveCountsForOpenSessionWhenRequested() {
+        Session session = Session.builder().id(1L).status(SessionStatus.OPEN).build();
+
+        when(sessionRepository.findById(1L)).thenReturn(Optional.of(session));
+        when(liveVoteCounter.read(1L)).thenReturn(new ResultResponse.VoteCount(7L, 3L, 10L));
+
+        ResultResponse result = sessionService.getResult(1L, true);
+
+        assertThat(result.voteCount().total()).isEqualTo(10L);
+        verifyNoInteractions(sessionTallyRepository);
+    }
+
+    @Test
+    void shouldServePersistedTallyForClosedSessionEvenWhenLiveRequested() {
+        Session session = Session.builder().id(1L).status(SessionStatus.CLOSE).build();
+
+        when(sessionRepository.findById(1L)).thenReturn(Optional.of(session));
+        when(sessionTallyRepository.find(1L)).thenReturn(new ResultResponse.VoteCount(4L, 1L, 5L));
+
+        ResultResponse result = sessionService.getResult(1L, true);
+
+        assertThat(result.voteCount().total()).isEqualTo(5L);
+        verifyNoInteractions(liveVoteCounter);
+    }
+
+    @Test
+    void shouldFallBackToTallyWhenLiveCountersUnavailable() {
+        Session session = Session.builder().id(1L).status(SessionStatus.OPEN).build();
+
+        when(sessionRepository.findById(1L)).thenReturn(Optional.of(session));
+        when(liveVoteCounter.read(1L)).thenThrow(new RuntimeException("Redis Down"));
+        when(sessionTallyRepository.find(1L)).thenReturn(new ResultResponse.VoteCount(4L, 1L, 5L));
+
+        ResultResponse result = sessionService.getResult(1L, true);
+
+        assertThat(result.voteCount().total()).isEqualTo(5L);
+    }
+
+    @Test
+    void shouldReportDriftBetweenLiveAndPersistedCounts() {
+        ResultResponse.VoteCount persisted = new ResultResponse.VoteCount(4L, 1L, 5L);
+        Session session = Session.builder().id(1L).status(SessionStatus.OPEN).build();
+
+        when(sessionRepository.findById(1L)).thenReturn(Optional.of(session));
+        when(liveVoteCounter.read(1L)).thenReturn(new ResultResponse.VoteCount(5L, 1L, 6L));
+        when(sessionTallyRepository.find(1L)).thenReturn(persisted);
+        when(voteRepository.countVotesBySessionId(1L)).thenReturn(persisted);
+
+        ResultReconciliation result = sessionService.reconcileResult(1L);
+
+        assertThat(result.consistent()).isFalse();
+        assertThat(result.persisted()).isEqualTo(persisted);
+    }
 }
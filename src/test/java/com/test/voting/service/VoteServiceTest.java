@@ -1,5 +1,6 @@
 package com.test.voting.service;
 
+import com.test.voting.cache.LiveVoteCounter;
 import com.test.voting.cache.SessionValidationCache;
 import com.test.voting.cache.VoteValidationCache;
 import com.test.voting.dto.CpfValidationResponse;
@@ -10,8 +11,10 @@ import com.test.voting.dto.VoteResponse;
 import com.test.voting.facade.CpfValidationFacade;
 import com.test.voting.messaging.VoteProducer;
 import com.test.voting.model.enums.SessionStatus;
+import com.test.voting.model.enums.VoteAdmission;
 import com.test.voting.model.enums.VoteStatus;
 import com.test.voting.model.enums.VoteType;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -19,8 +22,8 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 
-import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -38,26 +41,31 @@ class VoteServiceTest {
     private CpfValidationFacade cpfValidationFacade;
     @Mock
     private VoteValidationCache voteValidationCache;
+    @Mock
+    private LiveVoteCounter liveVoteCounter;
+    @Mock
+    private Validator validator;
 
     @InjectMocks
     private VoteService voteService;
 
     private static final String VALID_CPF = "01582728119";
+    private static final long NUMERIC_CPF = 1582728119L;
     private static final Long SESSION_ID = 1L;
 
     @Test
     void shouldReturnOkWhenVoteIsSuccessful() {
         when(sessionValidationCache.get(SESSION_ID)).thenReturn(openSession());
-        when(cpfValidationFacade.validateCpf(VALID_CPF))
+        when(cpfValidationFacade.validateCpf(NUMERIC_CPF))
                 .thenReturn(new CpfValidationResponse(VoteStatus.ABLE_TO_VOTE));
-        when(voteValidationCache.reserve(eq(SESSION_ID), eq(VALID_CPF), any(Duration.class)))
-                .thenReturn(true);
+        when(voteValidationCache.admit(SESSION_ID, NUMERIC_CPF)).thenReturn(VoteAdmission.ADMITTED);
 
         VoteResponse response = voteService.registerVote(buildRequest());
 
         assertThat(response.httpStatus()).isEqualTo(HttpStatus.ACCEPTED);
         assertThat(response.message()).isEqualTo("Vote registered successfully.");
         verify(voteProducer).sendVote(any(VoteMessage.class));
+        verify(liveVoteCounter).increment(SESSION_ID, VoteType.YES);
     }
 
     @Test
@@ -83,7 +91,7 @@ class VoteServiceTest {
     @Test
     void shouldReturnInvalidCpfWhenFacadeReturnsNull() {
         when(sessionValidationCache.get(SESSION_ID)).thenReturn(openSession());
-        when(cpfValidationFacade.validateCpf(VALID_CPF)).thenReturn(null);
+        when(cpfValidationFacade.validateCpf(NUMERIC_CPF)).thenReturn(null);
 
         VoteResponse response = voteService.registerVote(buildRequest());
 
@@ -95,7 +103,7 @@ class VoteServiceTest {
     @Test
     void shouldReturnUnableToVoteWhenCpfIsUnable() {
         when(sessionValidationCache.get(SESSION_ID)).thenReturn(openSession());
-        when(cpfValidationFacade.validateCpf(VALID_CPF))
+        when(cpfValidationFacade.validateCpf(NUMERIC_CPF))
                 .thenReturn(new CpfValidationResponse(VoteStatus.UNABLE_TO_VOTE));
 
         VoteResponse response = voteService.registerVote(buildRequest());
@@ -108,30 +116,94 @@ class VoteServiceTest {
     @Test
     void shouldReturnAlreadyVotedWhenReserveFails() {
         when(sessionValidationCache.get(SESSION_ID)).thenReturn(openSession());
-        when(cpfValidationFacade.validateCpf(VALID_CPF))
+        when(cpfValidationFacade.validateCpf(NUMERIC_CPF))
+                .thenReturn(new CpfValidationResponse(VoteStatus.ABLE_TO_VOTE));
+        when(voteValidationCache.admit(SESSION_ID, NUMERIC_CPF)).thenReturn(VoteAdmission.ALREADY_VOTED);
+
+        VoteResponse response = voteService.registerVote(buildRequest());
+
+        assertThat(response.httpStatus()).isEqualTo(HttpStatus.CONFLICT);
+        verifyNoInteractions(voteProducer);
+    }
+
+    @Test
+    void shouldReturnInvalidSessionWhenAdmissionSeesClosedSession() {
+        when(sessionValidationCache.get(SESSION_ID)).thenReturn(openSession());
+        when(cpfValidationFacade.validateCpf(NUMERIC_CPF))
                 .thenReturn(new CpfValidationResponse(VoteStatus.ABLE_TO_VOTE));
-        when(voteValidationCache.reserve(eq(SESSION_ID), eq(VALID_CPF), any(Duration.class)))
-                .thenReturn(false);
+        when(voteValidationCache.admit(SESSION_ID, NUMERIC_CPF)).thenReturn(VoteAdmission.SESSION_CLOSED);
 
         VoteResponse response = voteService.registerVote(buildRequest());
 
         assertThat(response.httpStatus()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(response.message()).isEqualTo("Session expired or closed.");
         verifyNoInteractions(voteProducer);
     }
 
     @Test
     void shouldReleaseReservationWhenProducerFails() {
         when(sessionValidationCache.get(SESSION_ID)).thenReturn(openSession());
-        when(cpfValidationFacade.validateCpf(VALID_CPF))
+        when(cpfValidationFacade.validateCpf(NUMERIC_CPF))
                 .thenReturn(new CpfValidationResponse(VoteStatus.ABLE_TO_VOTE));
-        when(voteValidationCache.reserve(eq(SESSION_ID), eq(VALID_CPF), any(Duration.class)))
-                .thenReturn(true);
+        when(voteValidationCache.admit(SESSION_ID, NUMERIC_CPF)).thenReturn(VoteAdmission.ADMITTED);
 
         doThrow(new RuntimeException()).when(voteProducer).sendVote(any());
         assertThatThrownBy(() -> voteService.registerVote(buildRequest()))
                 .isInstanceOf(RuntimeException.class);
 
-        verify(voteValidationCache).release(SESSION_ID, VALID_CPF);
+        verify(voteValidationCache).release(SESSION_ID, NUMERIC_CPF);
+        verifyNoInteractions(liveVoteCounter);
+    }
+
+    @Test
+    void shouldCheckSessionOnceAndPublishAcceptedVotesTogether() {
+        VoteRequest first = new VoteRequest(SESSION_ID, VALID_CPF, VoteType.YES);
+        VoteRequest second = new VoteRequest(SESSION_ID, "12345678909", VoteType.NO);
+
+        when(sessionValidationCache.get(SESSION_ID)).thenReturn(openSession());
+        when(cpfValidationFacade.validateCpf(anyLong()))
+                .thenReturn(new CpfValidationResponse(VoteStatus.ABLE_TO_VOTE));
+        when(voteValidationCache.admitAll(anyList()))
+                .thenReturn(List.of(VoteAdmission.ADMITTED, VoteAdmission.ALREADY_VOTED));
+
+        List<VoteResponse> responses = voteService.registerVotes(List.of(first, second));
+
+        assertThat(responses).extracting(VoteResponse::httpStatus)
+                .containsExactly(HttpStatus.ACCEPTED, HttpStatus.CONFLICT);
+        verify(sessionValidationCache, times(1)).get(SESSION_ID);
+        verify(voteProducer).sendVotes(argThat(messages ->
+                messages.size() == 1 && messages.getFirst().getCpf() == NUMERIC_CPF));
+        verify(liveVoteCounter).increment(SESSION_ID, VoteType.YES);
+    }
+
+    @Test
+    void shouldRejectBatchItemsWithoutReservingThem() {
+        VoteRequest closed = new VoteRequest(2L, VALID_CPF, VoteType.YES);
+        VoteRequest invalidCpf = new VoteRequest(SESSION_ID, "12345678900", VoteType.YES);
+
+        when(sessionValidationCache.get(2L)).thenReturn(closedSession());
+        when(sessionValidationCache.get(SESSION_ID)).thenReturn(openSession());
+        when(cpfValidationFacade.validateCpf(12345678900L)).thenReturn(null);
+
+        List<VoteResponse> responses = voteService.registerVotes(List.of(closed, invalidCpf));
+
+        assertThat(responses).containsExactly(VoteResponse.invalidSession(), VoteResponse.invalidCpf());
+        verifyNoInteractions(voteValidationCache, voteProducer);
+    }
+
+    @Test
+    void shouldReleaseBatchReservationsWhenPublishFails() {
+        when(sessionValidationCache.get(SESSION_ID)).thenReturn(openSession());
+        when(cpfValidationFacade.validateCpf(NUMERIC_CPF))
+                .thenReturn(new CpfValidationResponse(VoteStatus.ABLE_TO_VOTE));
+        when(voteValidationCache.admitAll(anyList())).thenReturn(List.of(VoteAdmission.ADMITTED));
+        doThrow(new RuntimeException()).when(voteProducer).sendVotes(anyList());
+
+        assertThatThrownBy(() -> voteService.registerVotes(List.of(buildRequest())))
+                .isInstanceOf(RuntimeException.class);
+
+        verify(voteValidationCache).release(SESSION_ID, NUMERIC_CPF);
+        verifyNoInteractions(liveVoteCounter);
     }
 
     private VoteRequest buildRequest() {
@@ -2,7 +2,9 @@ package com.test.voting.utils;
 
 import org.junit.jupiter.api.Test;
 
+import static com.test.voting.utils.CpfUtils.INVALID_CPF;
 import static com.test.voting.utils.CpfUtils.formatCpf;
+import static com.test.voting.utils.CpfUtils.parseCpf;
 import static org.assertj.core.api.Assertions.assertThat;
 
 class CpfUtilsTest {
@@ -26,4 +28,21 @@ class CpfUtilsTest {
     void shouldReturnEmptyWhenOnlySpecialChars() {
         assertThat(formatCpf("...---")).isEmpty();
     }
+
+    @Test
+    void shouldParseCpfWithLeadingZeros() {
+        assertThat(parseCpf("01582728119")).isEqualTo(1582728119L);
+    }
+
+    @Test
+    void shouldParseFormattedCpf() {
+        assertThat(parseCpf("123.456.789-09")).isEqualTo(12345678909L);
+    }
+
+    @Test
+    void shouldReturnInvalidWhenDigitCountIsWrong() {
+        assertThat(parseCpf("1234567890")).isEqualTo(INVALID_CPF);
+        assertThat(parseCpf("123456789012")).isEqualTo(INVALID_CPF);
+        assertThat(parseCpf(null)).isEqualTo(INVALID_CPF);
+    }
 }